@@ -45,6 +45,8 @@ do_start() {
       upgrade-2.6 \
       upgrade-3.0 \
       upgrade-4.0 \
+      upgrade-5.1 \
+      upgrade-5.2 \
       test ; do
     apply_script "${script}"
   done
@@ -62,6 +62,7 @@ module org.randomcoder.website {
     opens org.randomcoder.website.data;
     opens org.randomcoder.website.feed;
     opens org.randomcoder.website.model;
+    opens org.randomcoder.website.thymeleaf;
     opens org.randomcoder.website.validation;
     opens org.randomcoder.website.jaxrs.features;
     opens org.randomcoder.website.jaxrs.providers;
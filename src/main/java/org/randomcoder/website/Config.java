@@ -19,11 +19,16 @@ public class Config {
     public static final String HTTPS_FORCED = "https.forced";
     public static final String EXPOSE_EXCEPTION_DETAILS = "expose.exception.details";
     public static final String MODERATION_BATCH_SIZE = "moderation.batch.size";
+    public static final String RENDER_BATCH_SIZE = "render.batch.size";
+    public static final String RENDER_PARALLEL_THREADS = "render.parallel.threads";
+    public static final String RENDER_PARALLEL_TIMEOUT = "render.parallel.timeout";
     public static final String ARTICLE_MAX_SUMMARY_LENGTH = "article.max.summary.length";
     public static final String USERNAME_LENGTH_MINIMUM = "username.length.minimum";
     public static final String PASSWORD_LENGTH_MINIMUM = "password.length.minimum";
     public static final String TAG_PAGESIZE_MAX = "tag.pagesize.max";
     public static final String ARTICLE_PAGESIZE_MAX = "article.pagesize.max";
+    public static final String ARTICLE_PAGING_COUNT_QUERY = "article.paging.count.query";
+    public static final String ARTICLE_LOAD_STRATEGY = "article.load.strategy";
     public static final String USER_PAGESIZE_MAX = "user.pagesize.max";
     public static final String DATABASE_URL = "database.url";
     public static final String DATABASE_USERNAME = "database.username";
@@ -25,6 +25,8 @@ import org.randomcoder.website.bo.AppInfoBusiness;
 import org.randomcoder.website.bo.AppInfoBusinessImpl;
 import org.randomcoder.website.bo.ArticleBusiness;
 import org.randomcoder.website.bo.ArticleBusinessImpl;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.bo.ContentBusinessImpl;
 import org.randomcoder.website.bo.Moderator;
 import org.randomcoder.website.bo.ResourceCache;
 import org.randomcoder.website.bo.ResourceCacheImpl;
@@ -35,17 +37,30 @@ import org.randomcoder.website.bo.UserBusiness;
 import org.randomcoder.website.bo.UserBusinessImpl;
 import org.randomcoder.website.cache.ArticleCache;
 import org.randomcoder.website.cache.ArticleCacheImpl;
+import org.randomcoder.website.cache.AvatarCache;
+import org.randomcoder.website.cache.AvatarCacheImpl;
+import org.randomcoder.website.cache.ContentCache;
+import org.randomcoder.website.cache.ContentCacheImpl;
+import org.randomcoder.website.cache.FeedCache;
+import org.randomcoder.website.cache.FeedCacheImpl;
+import org.randomcoder.website.cache.FragmentCache;
+import org.randomcoder.website.cache.FragmentCacheImpl;
+import org.randomcoder.website.cache.PageCache;
+import org.randomcoder.website.cache.PageCacheImpl;
 import org.randomcoder.website.cache.TagCache;
 import org.randomcoder.website.cache.TagCacheImpl;
 import org.randomcoder.website.contentfilter.ContentFilter;
 import org.randomcoder.website.contentfilter.MultiContentFilter;
+import org.randomcoder.website.contentfilter.SaxResources;
 import org.randomcoder.website.contentfilter.TextFilter;
 import org.randomcoder.website.contentfilter.XHTMLFilter;
 import org.randomcoder.website.controller.ArticleController;
 import org.randomcoder.website.controller.ArticleTagListController;
 import org.randomcoder.website.controller.HomeController;
+import org.randomcoder.website.controller.SidebarController;
 import org.randomcoder.website.dao.ArticleDao;
 import org.randomcoder.website.dao.ArticleDaoImpl;
+import org.randomcoder.website.dao.ArticleLoadStrategy;
 import org.randomcoder.website.dao.CommentDao;
 import org.randomcoder.website.dao.CommentDaoImpl;
 import org.randomcoder.website.dao.RoleDao;
@@ -54,12 +69,13 @@ import org.randomcoder.website.dao.TagDao;
 import org.randomcoder.website.dao.TagDaoImpl;
 import org.randomcoder.website.dao.UserDao;
 import org.randomcoder.website.dao.UserDaoImpl;
-import org.randomcoder.website.feed.AtomFeedGenerator;
 import org.randomcoder.website.feed.FeedGenerator;
-import org.randomcoder.website.feed.Rss20FeedGenerator;
+import org.randomcoder.website.feed.StreamingAtomFeedGenerator;
+import org.randomcoder.website.feed.StreamingRss20FeedGenerator;
 import org.randomcoder.website.jaxrs.features.SecurityFeature;
 import org.randomcoder.website.jaxrs.providers.CorsFilter;
 import org.randomcoder.website.jaxrs.resources.StaticResource;
+import org.randomcoder.website.thymeleaf.ThymeleafRenderer;
 import org.randomcoder.website.thymeleaf.ThymeleafTemplateResolver;
 import org.randomcoder.website.validation.AccountCreateValidator;
 import org.randomcoder.website.validation.ArticleAddValidator;
@@ -84,6 +100,7 @@ import java.net.URL;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
 
 public class WebSiteApplication extends ResourceConfig {
@@ -141,10 +158,15 @@ public class WebSiteApplication extends ResourceConfig {
                 bind(config.getIntOrDefault(Config.ARTICLE_MAX_SUMMARY_LENGTH, 1000)).named(Config.ARTICLE_MAX_SUMMARY_LENGTH).to(Integer.class);
                 bind(config.getIntOrDefault(Config.USER_PAGESIZE_MAX, 100)).named(Config.USER_PAGESIZE_MAX).to(Integer.class);
                 bind(config.getIntOrDefault(Config.ARTICLE_PAGESIZE_MAX, 100)).named(Config.ARTICLE_PAGESIZE_MAX).to(Integer.class);
+                bind(config.getBooleanOrDefault(Config.ARTICLE_PAGING_COUNT_QUERY, false)).named(Config.ARTICLE_PAGING_COUNT_QUERY).to(Boolean.class);
+                bind(ArticleLoadStrategy.valueOf(config.getStringOrDefault(Config.ARTICLE_LOAD_STRATEGY, "aggregate").toUpperCase(Locale.US))).named(Config.ARTICLE_LOAD_STRATEGY).to(ArticleLoadStrategy.class);
                 bind(config.getIntOrDefault(Config.USERNAME_LENGTH_MINIMUM, 3)).named(Config.USERNAME_LENGTH_MINIMUM).to(Integer.class);
                 bind(config.getIntOrDefault(Config.PASSWORD_LENGTH_MINIMUM, 6)).named(Config.PASSWORD_LENGTH_MINIMUM).to(Integer.class);
                 bind(config.getIntOrDefault(Config.TAG_PAGESIZE_MAX, 100)).named(Config.TAG_PAGESIZE_MAX).to(Integer.class);
                 bind(config.getIntOrDefault(Config.MODERATION_BATCH_SIZE, 5)).named(Config.MODERATION_BATCH_SIZE).to(Integer.class);
+                bind(config.getIntOrDefault(Config.RENDER_BATCH_SIZE, 20)).named(Config.RENDER_BATCH_SIZE).to(Integer.class);
+                bind(config.getIntOrDefault(Config.RENDER_PARALLEL_THREADS, 0)).named(Config.RENDER_PARALLEL_THREADS).to(Integer.class);
+                bind(config.getIntOrDefault(Config.RENDER_PARALLEL_TIMEOUT, 250)).named(Config.RENDER_PARALLEL_TIMEOUT).to(Integer.class);
 
                 URL feedBaseUrl = new URL(config.getString(Config.FEED_BASE_URL));
                 bind(feedBaseUrl).named(Config.FEED_BASE_URL).to(URL.class);
@@ -157,17 +179,26 @@ public class WebSiteApplication extends ResourceConfig {
                 // caches
                 singletons(Map.of(
                         ArticleCache.class, ArticleCacheImpl.class,
+                        AvatarCache.class, AvatarCacheImpl.class,
+                        ContentCache.class, ContentCacheImpl.class,
+                        FeedCache.class, FeedCacheImpl.class,
+                        FragmentCache.class, FragmentCacheImpl.class,
+                        PageCache.class, PageCacheImpl.class,
                         TagCache.class, TagCacheImpl.class));
 
+                // rendering
+                singletons(ThymeleafRenderer.class);
+
                 // feeds
-                bind(Rss20FeedGenerator.class).named("rss20FeedGenerator").to(FeedGenerator.class).in(Singleton.class);
-                bind(AtomFeedGenerator.class).named("atomFeedGenerator").to(FeedGenerator.class).in(Singleton.class);
+                bind(StreamingRss20FeedGenerator.class).named("rss20FeedGenerator").to(FeedGenerator.class).in(Singleton.class);
+                bind(StreamingAtomFeedGenerator.class).named("atomFeedGenerator").to(FeedGenerator.class).in(Singleton.class);
 
                 // controllers
                 singletons(
                         HomeController.class,
                         ArticleTagListController.class,
-                        ArticleController.class);
+                        ArticleController.class,
+                        SidebarController.class);
 
                 // validators
                 singletons(
@@ -190,6 +221,7 @@ public class WebSiteApplication extends ResourceConfig {
                 singletons(Map.of(
                         AppInfoBusiness.class, AppInfoBusinessImpl.class,
                         ArticleBusiness.class, ArticleBusinessImpl.class,
+                        ContentBusiness.class, ContentBusinessImpl.class,
                         TagBusiness.class, TagBusinessImpl.class,
                         UserBusiness.class, UserBusinessImpl.class,
                         ResourceCache.class, ResourceCacheImpl.class));
@@ -218,6 +250,7 @@ public class WebSiteApplication extends ResourceConfig {
         registry.registerAll("jvm.gc", new GarbageCollectorMetricSet());
         registry.registerAll("jvm.attr", new JvmAttributeGaugeSet());
         registry.registerAll("jvm.memory", new MemoryUsageGaugeSet());
+        registry.registerAll("content.sax", SaxResources.metrics());
 
         return registry;
     }
@@ -1,11 +1,14 @@
 package org.randomcoder.website.bo;
 
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.ModerationException;
 import org.randomcoder.website.data.Page;
 import org.randomcoder.website.data.Tag;
 
+import java.time.YearMonth;
 import java.util.Date;
 import java.util.List;
 import java.util.function.Consumer;
@@ -44,4 +47,23 @@ public interface ArticleBusiness {
 
     List<Article> listArticlesByTagBetweenDates(Tag tag, Date startDate, Date endDate);
 
+    // given a cursor, the page continues after it and offset only numbers the page
+    Page<Article> listArticlesBeforeDate(
+            ArticleProjection projection, Date endDate, ArticleCursor after, long offset, long length);
+
+    Page<Article> listArticlesByTagBeforeDate(
+            ArticleProjection projection, Tag tag, Date endDate, ArticleCursor after, long offset, long length);
+
+    List<Article> listArticlesBetweenDates(ArticleProjection projection, Date startDate, Date endDate);
+
+    List<Article> listArticlesByTagBetweenDates(ArticleProjection projection, Tag tag, Date startDate, Date endDate);
+
+    // days with articles, as a mask with bit 0 for the 1st
+    int findDaysWithArticles(YearMonth month);
+
+    int findDaysWithArticlesByTag(Tag tag, YearMonth month);
+
+    // months before the current one with articles, newest first
+    List<YearMonth> listArchiveMonths();
+
 }
@@ -1,14 +1,19 @@
 package org.randomcoder.website.bo;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.NotAuthorizedException;
 import org.apache.commons.lang3.StringUtils;
 import org.randomcoder.website.cache.ArticleCache;
+import org.randomcoder.website.cache.ArticleChange;
+import org.randomcoder.website.cache.ArticleCountKey;
+import org.randomcoder.website.cache.ArticleKey;
 import org.randomcoder.website.cache.ArticlesBeforeDateRangeKey;
 import org.randomcoder.website.cache.ArticlesBetweenDatesKey;
 import org.randomcoder.website.cache.ArticlesByTagBeforeDateRangeKey;
 import org.randomcoder.website.cache.ArticlesByTagBetweenDatesKey;
+import org.randomcoder.website.cache.ArticlesByTagMonthKey;
 import org.randomcoder.website.cache.TagCache;
 import org.randomcoder.website.dao.ArticleDao;
 import org.randomcoder.website.dao.CommentDao;
@@ -16,6 +21,8 @@ import org.randomcoder.website.dao.RoleDao;
 import org.randomcoder.website.dao.TagDao;
 import org.randomcoder.website.dao.UserDao;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.ArticleNotFoundException;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.CommentNotFoundException;
@@ -30,9 +37,16 @@ import org.randomcoder.website.data.UserNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Singleton
 public class ArticleBusinessImpl implements ArticleBusiness {
@@ -65,6 +79,9 @@ public class ArticleBusinessImpl implements ArticleBusiness {
     @Inject
     TagCache tagCache;
 
+    @Inject
+    ContentBusiness contentBusiness;
+
     @Override
     public Article createArticle(Consumer<Article> visitor, String userName) {
         User user = findUserByName(userName);
@@ -81,11 +98,12 @@ public class ArticleBusinessImpl implements ArticleBusiness {
             }
         }
 
+        contentBusiness.renderArticle(article);
+
         long id = articleDao.save(article);
         article.setId(id);
 
-        articleCache.clearAll();
-        tagCache.clearAll();
+        invalidate(ArticleChange.created(article));
 
         return article;
     }
@@ -121,7 +139,11 @@ public class ArticleBusinessImpl implements ArticleBusiness {
         comment.setIpAddress(StringUtils.trimToNull(ipAddress));
         comment.setUserAgent(StringUtils.trimToNull(userAgent));
 
+        contentBusiness.renderComment(comment);
+
         commentDao.save(comment);
+
+        invalidate(ArticleChange.commentsChanged(article));
     }
 
     @Override
@@ -130,6 +152,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
 
         Article article = loadArticle(articleId);
         checkAuthorUpdate(user, article);
+        var previousTagIds = ArticleChange.tagIds(article);
         visitor.accept(article);
 
         article.setModifiedByUser(user);
@@ -142,21 +165,37 @@ public class ArticleBusinessImpl implements ArticleBusiness {
             }
         }
 
+        contentBusiness.renderArticle(article);
+
         articleDao.save(article);
 
-        articleCache.clearAll();
-        tagCache.clearAll();
+        invalidate(ArticleChange.updated(article, previousTagIds));
 
         return article;
     }
 
     @Override
     public Article readArticle(long articleId) {
-        return articleDao.findById(articleId);
+        // not found isn't cached, so a new article is seen straight away
+        return articleCache.articles().get(new ArticleKey(ArticleProjection.FULL, articleId), k ->
+                articleDao.findById(articleId));
     }
 
     @Override
     public Article findArticleByPermalink(String permalink) {
+        // only the index is filled here; articles are always loaded through the entity cache
+        Long articleId = articleCache.permalinks().get(permalink, articleDao::findIdByPermalink);
+        if (articleId == null) {
+            return null;
+        }
+
+        Article article = readArticle(articleId);
+        if (article != null && permalink.equals(article.getPermalink())) {
+            return article;
+        }
+
+        // the permalink moved while it was being looked up, so don't trust the index this time
+        articleCache.permalinks().invalidate(permalink);
         return articleDao.findByPermalink(permalink);
     }
 
@@ -175,8 +214,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
         Article article = loadArticle(articleId);
         checkAuthorDelete(user, article);
         articleDao.deleteById(articleId);
-        articleCache.clearAll();
-        tagCache.clearAll();
+        invalidate(ArticleChange.deleted(article));
     }
 
     @Override
@@ -189,6 +227,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
         comment.setModerationStatus(ModerationStatus.HAM);
         comment.setVisible(true);
         commentDao.save(comment);
+        invalidateComments(article.getId());
 
         moderator.markAsHam(comment);
 
@@ -205,6 +244,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
         comment.setModerationStatus(ModerationStatus.SPAM);
         comment.setVisible(false);
         commentDao.save(comment);
+        invalidateComments(article.getId());
 
         moderator.markAsSpam(comment);
 
@@ -219,6 +259,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
 
         Article article = comment.getArticle();
         commentDao.deleteById(comment.getId());
+        invalidateComments(article.getId());
 
         return article;
     }
@@ -229,6 +270,7 @@ public class ArticleBusinessImpl implements ArticleBusiness {
         if (page.getContent().size() < 1) {
             return false;
         }
+        Set<Long> articleIds = new HashSet<>();
         for (Comment comment : page.getContent()) {
             logger.info("Moderating comment #" + comment.getId());
 
@@ -238,6 +280,10 @@ public class ArticleBusinessImpl implements ArticleBusiness {
             comment.setVisible(valid);
             comment.setModerationStatus(valid ? ModerationStatus.HAM : ModerationStatus.SPAM);
             commentDao.save(comment);
+            articleIds.add(comment.getArticle().getId());
+        }
+        for (long articleId : articleIds) {
+            invalidateComments(articleId);
         }
 
         return true;
@@ -245,38 +291,189 @@ public class ArticleBusinessImpl implements ArticleBusiness {
 
     @Override
     public List<Article> listRecentArticles(int limit) {
-        return articleCache.articlesRecentLimit().get(limit, k -> {
-            var page = articleDao.listByDateDesc(0, limit);
-            return page.getContent();
-        });
+        return cachedList(articleCache.articlesRecentLimit(), limit, ArticleProjection.FULL, () ->
+                articleDao.listByDateDesc(ArticleProjection.FULL, 0, limit).getContent());
     }
 
     @Override
     public Page<Article> listArticlesBeforeDate(Date endDate, long offset, long length) {
-        var cacheKey = new ArticlesBeforeDateRangeKey(endDate, offset, length);
-        return articleCache.articlesBeforeDateRange().get(cacheKey, k ->
-                articleDao.listBeforeDate(endDate, offset, length));
+        return listArticlesBeforeDate(ArticleProjection.FULL, endDate, null, offset, length);
     }
 
     @Override
     public Page<Article> listArticlesByTagBeforeDate(Tag tag, Date endDate, long offset, long length) {
-        var cacheKey = new ArticlesByTagBeforeDateRangeKey(tag, endDate, offset, length);
-        return articleCache.articlesByTagBeforeDateRange().get(cacheKey, k ->
-                articleDao.listByTagBeforeDate(tag, endDate, offset, length));
+        return listArticlesByTagBeforeDate(ArticleProjection.FULL, tag, endDate, null, offset, length);
+    }
+
+    @Override
+    public Page<Article> listArticlesBeforeDate(
+            ArticleProjection projection, Date endDate, ArticleCursor after, long offset, long length) {
+        var cacheKey = new ArticlesBeforeDateRangeKey(projection, endDate, after, offset, length);
+        return cachedPage(articleCache.articlesBeforeDateRange(), cacheKey, projection, () -> after == null
+                ? articleDao.listBeforeDate(projection, endDate, offset, length)
+                : articleDao.listBeforeCursor(projection, endDate, after, offset, length, countArticles(null, endDate)));
+    }
+
+    @Override
+    public Page<Article> listArticlesByTagBeforeDate(
+            ArticleProjection projection, Tag tag, Date endDate, ArticleCursor after, long offset, long length) {
+        var cacheKey = new ArticlesByTagBeforeDateRangeKey(projection, tag, endDate, after, offset, length);
+        return cachedPage(articleCache.articlesByTagBeforeDateRange(), cacheKey, projection, () -> after == null
+                ? articleDao.listByTagBeforeDate(projection, tag, endDate, offset, length)
+                : articleDao.listByTagBeforeCursor(
+                        projection, tag, endDate, after, offset, length, countArticles(tag, endDate)));
+    }
+
+    private long countArticles(Tag tag, Date endDate) {
+        long generation = articleCache.generation();
+        var cacheKey = new ArticleCountKey(tag, endDate);
+        Long count = articleCache.articleCounts().get(cacheKey, k -> tag == null
+                ? articleDao.countBeforeDate(endDate)
+                : articleDao.countByTagBeforeDate(tag, endDate));
+        dropIfInvalidated(articleCache.articleCounts(), cacheKey, count, generation);
+        return count;
     }
 
     @Override
     public List<Article> listArticlesBetweenDates(Date startDate, Date endDate) {
-        var cacheKey = new ArticlesBetweenDatesKey(startDate, endDate);
-        return articleCache.articlesBetweenDates().get(cacheKey, k ->
-                articleDao.listBetweenDates(startDate, endDate));
+        return listArticlesBetweenDates(ArticleProjection.FULL, startDate, endDate);
     }
 
     @Override
     public List<Article> listArticlesByTagBetweenDates(Tag tag, Date startDate, Date endDate) {
-        var cacheKey = new ArticlesByTagBetweenDatesKey(tag, startDate, endDate);
-        return articleCache.articlesByTagBetweenDates().get(cacheKey, k ->
-                articleDao.listByTagBetweenDates(tag, startDate, endDate));
+        return listArticlesByTagBetweenDates(ArticleProjection.FULL, tag, startDate, endDate);
+    }
+
+    @Override
+    public List<Article> listArticlesBetweenDates(ArticleProjection projection, Date startDate, Date endDate) {
+        var cacheKey = new ArticlesBetweenDatesKey(projection, startDate, endDate);
+        return cachedList(articleCache.articlesBetweenDates(), cacheKey, projection, () ->
+                articleDao.listBetweenDates(projection, startDate, endDate));
+    }
+
+    @Override
+    public List<Article> listArticlesByTagBetweenDates(
+            ArticleProjection projection, Tag tag, Date startDate, Date endDate) {
+        var cacheKey = new ArticlesByTagBetweenDatesKey(projection, tag, startDate, endDate);
+        return cachedList(articleCache.articlesByTagBetweenDates(), cacheKey, projection, () ->
+                articleDao.listByTagBetweenDates(projection, tag, startDate, endDate));
+    }
+
+    @Override
+    public int findDaysWithArticles(YearMonth month) {
+        return articleCache.daysWithArticles().get(month, k ->
+                dayMask(month, articleDao::listCreationDatesBetweenDates));
+    }
+
+    @Override
+    public int findDaysWithArticlesByTag(Tag tag, YearMonth month) {
+        var cacheKey = new ArticlesByTagMonthKey(tag, month);
+        return articleCache.daysWithArticlesByTag().get(cacheKey, k ->
+                dayMask(month, (startDate, endDate) -> articleDao.listCreationDatesByTagBetweenDates(tag, startDate, endDate)));
+    }
+
+    private static int dayMask(YearMonth month, BiFunction<Date, Date, List<Date>> creationDates) {
+        ZoneId zone = ZoneId.systemDefault();
+        Date startDate = Date.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Date endDate = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+
+        int mask = 0;
+        for (Date created : creationDates.apply(startDate, endDate)) {
+            mask |= 1 << (created.toInstant().atZone(zone).getDayOfMonth() - 1);
+        }
+        return mask;
+    }
+
+    @Override
+    public List<YearMonth> listArchiveMonths() {
+        return articleCache.archiveMonths().get(YearMonth.now(), current -> {
+            // step back one article at a time, starting before the month of each article found
+            ZoneId zone = ZoneId.systemDefault();
+            List<YearMonth> months = new ArrayList<>();
+            YearMonth month = current;
+            while (true) {
+                Date monthStart = Date.from(month.atDay(1).atStartOfDay(zone).toInstant());
+                List<Article> previous = articleDao.listBeforeDate(ArticleProjection.SUMMARY, monthStart, 0, 1).getContent();
+                if (previous.isEmpty()) {
+                    return months;
+                }
+                month = YearMonth.from(previous.get(0).getCreationDate().toInstant().atZone(zone));
+                months.add(month);
+            }
+        });
+    }
+
+    // only ids are cached with the page; the articles are shared through the article cache
+    private <K> Page<Article> cachedPage(
+            Cache<K, Page<Long>> cache, K cacheKey, ArticleProjection projection, Supplier<Page<Article>> loader) {
+        long generation = articleCache.generation();
+        Page<Long> ids = cache.get(cacheKey, k -> {
+            Page<Article> page = loader.get();
+            return page.withContent(articleCache.putArticles(projection, page.getContent(), generation));
+        });
+        dropIfInvalidated(cache, cacheKey, ids, generation);
+        List<Article> articles = resolveArticles(projection, ids.getContent());
+        if (articles != null) {
+            return ids.withContent(articles);
+        }
+
+        // an article was deleted since the ids were cached
+        long reloadGeneration = articleCache.generation();
+        Page<Article> page = loader.get();
+        Page<Long> reloaded = page.withContent(articleCache.putArticles(projection, page.getContent(), reloadGeneration));
+        cache.put(cacheKey, reloaded);
+        dropIfInvalidated(cache, cacheKey, reloaded, reloadGeneration);
+        return page;
+    }
+
+    private <K> List<Article> cachedList(
+            Cache<K, List<Long>> cache, K cacheKey, ArticleProjection projection, Supplier<List<Article>> loader) {
+        long generation = articleCache.generation();
+        List<Long> ids = cache.get(cacheKey, k -> articleCache.putArticles(projection, loader.get(), generation));
+        dropIfInvalidated(cache, cacheKey, ids, generation);
+        List<Article> articles = resolveArticles(projection, ids);
+        if (articles != null) {
+            return articles;
+        }
+
+        // an article was deleted since the ids were cached
+        long reloadGeneration = articleCache.generation();
+        List<Article> list = loader.get();
+        List<Long> reloaded = articleCache.putArticles(projection, list, reloadGeneration);
+        cache.put(cacheKey, reloaded);
+        dropIfInvalidated(cache, cacheKey, reloaded, reloadGeneration);
+        return list;
+    }
+
+    private <K, V> void dropIfInvalidated(Cache<K, V> cache, K cacheKey, V value, long generation) {
+        // an invalidation can't see a list which is still being loaded, so one which ran meanwhile may have missed it
+        if (articleCache.generation() != generation) {
+            cache.asMap().remove(cacheKey, value);
+        }
+    }
+
+    private List<Article> resolveArticles(ArticleProjection projection, List<Long> articleIds) {
+        return articleCache.resolveArticles(projection, articleIds, missing -> articleDao.listByIds(projection, missing));
+    }
+
+    private void invalidate(ArticleChange change) {
+        articleCache.invalidate(change);
+        if (!change.tagIds().isEmpty()) {
+            tagCache.clearStatistics();
+        }
+    }
+
+    private void invalidateComments(long articleId) {
+        // comments only carry the article's id, but its archive is found by creation date
+        Date creationDate = articleCache.findCreationDate(articleId);
+        if (creationDate == null) {
+            creationDate = articleDao.findCreationDateById(articleId);
+        }
+        if (creationDate == null) {
+            articleCache.invalidateArticle(articleId);
+        } else {
+            invalidate(ArticleChange.commentsChanged(articleId, creationDate));
+        }
     }
 
     private void checkAuthorUpdate(User user, Article article) {
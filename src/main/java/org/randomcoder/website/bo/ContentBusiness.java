@@ -0,0 +1,29 @@
+package org.randomcoder.website.bo;
+
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Comment;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.TransformerException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+
+public interface ContentBusiness {
+
+    String formatArticleText(Article article, URL baseUrl) throws TransformerException, IOException, SAXException;
+
+    String formatArticleSummary(Article article, URL baseUrl) throws TransformerException, IOException, SAXException;
+
+    String formatCommentText(Comment comment, URL baseUrl) throws TransformerException, IOException, SAXException;
+
+    // warms the format caches in parallel when enabled; anything unfinished by the deadline is formatted on demand
+    void prerenderArticles(List<Article> articles);
+
+    void renderArticle(Article article);
+
+    void renderComment(Comment comment);
+
+    boolean renderStaleContent(int count);
+
+}
@@ -0,0 +1,241 @@
+package org.randomcoder.website.bo;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.randomcoder.website.Config;
+import org.randomcoder.website.cache.ContentCache;
+import org.randomcoder.website.cache.FormattedContentKey;
+import org.randomcoder.website.contentfilter.ContentFilter;
+import org.randomcoder.website.contentfilter.ContentUtils;
+import org.randomcoder.website.dao.ArticleDao;
+import org.randomcoder.website.dao.CommentDao;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Comment;
+import org.randomcoder.website.data.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.TransformerException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class ContentBusinessImpl implements ContentBusiness {
+    private static final Logger logger = LoggerFactory.getLogger(ContentBusinessImpl.class);
+
+    private static final String SOURCE_ARTICLE_TEXT = "article.text";
+    private static final String SOURCE_ARTICLE_SUMMARY = "article.summary";
+    private static final String SOURCE_COMMENT_TEXT = "comment.text";
+
+    public static final int DEFAULT_PARALLEL_RENDER_TIMEOUT = 250;
+
+    private ForkJoinPool renderPool;
+
+    @Inject
+    ContentFilter contentFilter;
+
+    @Inject
+    ContentCache contentCache;
+
+    @Inject
+    MetricRegistry metrics;
+
+    @Inject
+    ArticleDao articleDao;
+
+    @Inject
+    CommentDao commentDao;
+
+    @Inject
+    @Named(Config.RENDER_PARALLEL_THREADS)
+    int parallelRenderThreads = 0;
+
+    @Inject
+    @Named(Config.RENDER_PARALLEL_TIMEOUT)
+    int parallelRenderTimeout = DEFAULT_PARALLEL_RENDER_TIMEOUT;
+
+    @PostConstruct
+    public void start() {
+        if (parallelRenderThreads > 0) {
+            logger.info("Starting parallel render pool with " + parallelRenderThreads + " threads...");
+            renderPool = new ForkJoinPool(parallelRenderThreads);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (renderPool != null) {
+            logger.info("Stopping parallel render pool...");
+            renderPool.shutdownNow();
+        }
+        renderPool = null;
+    }
+
+    @Override
+    public String formatArticleText(Article article, URL baseUrl)
+            throws TransformerException, IOException, SAXException {
+        if (baseUrl == null && isRenderCurrent(article.getRenderVersion(), article.getRenderedContent())) {
+            return article.getRenderedContent();
+        }
+        return format(SOURCE_ARTICLE_TEXT, article.getId(), articleVersion(article),
+                article.getContent(), article.getContentType(), baseUrl);
+    }
+
+    @Override
+    public String formatArticleSummary(Article article, URL baseUrl)
+            throws TransformerException, IOException, SAXException {
+        if (baseUrl == null && isRenderCurrent(article.getRenderVersion(), article.getRenderedSummary())) {
+            return article.getRenderedSummary();
+        }
+        return format(SOURCE_ARTICLE_SUMMARY, article.getId(), articleVersion(article),
+                article.getSummary(), article.getContentType(), baseUrl);
+    }
+
+    @Override
+    public String formatCommentText(Comment comment, URL baseUrl)
+            throws TransformerException, IOException, SAXException {
+        if (baseUrl == null && isRenderCurrent(comment.getRenderVersion(), comment.getRenderedContent())) {
+            return comment.getRenderedContent();
+        }
+        return format(SOURCE_COMMENT_TEXT, comment.getId(), comment.getCreationDate(),
+                comment.getContent(), comment.getContentType(), baseUrl);
+    }
+
+    @Override
+    public void prerenderArticles(List<Article> articles) {
+        ForkJoinPool pool = renderPool;
+        if (pool == null) {
+            return;
+        }
+
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (Article article : articles) {
+            if (article.getContent() != null && !isRenderCurrent(article.getRenderVersion(), article.getRenderedContent())) {
+                tasks.add(() -> formatArticleText(article, null));
+            }
+            if (article.getSummary() != null && !isRenderCurrent(article.getRenderVersion(), article.getRenderedSummary())) {
+                tasks.add(() -> formatArticleSummary(article, null));
+            }
+            for (Comment comment : article.getComments()) {
+                if (comment.getContent() != null && !isRenderCurrent(comment.getRenderVersion(), comment.getRenderedContent())) {
+                    tasks.add(() -> formatCommentText(comment, null));
+                }
+            }
+        }
+
+        // a single item gains nothing from a hand-off
+        if (tasks.size() < 2) {
+            return;
+        }
+
+        try (var ignored = metrics.timer("content.prerender").time()) {
+            // failures are ignored here; they resurface when the template formats the same content
+            for (Future<String> future : pool.invokeAll(tasks, parallelRenderTimeout, TimeUnit.MILLISECONDS)) {
+                if (future.isCancelled()) {
+                    metrics.meter("content.prerender.timeouts").mark();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Unable to prerender articles", e);
+        }
+    }
+
+    @Override
+    public void renderArticle(Article article) {
+        // a failed render is still stamped so it is not retried; readers fall back to formatting on demand
+        article.setRenderVersion(ContentUtils.RENDER_VERSION);
+        article.setRenderedContent(null);
+        article.setRenderedSummary(null);
+        try {
+            article.setRenderedContent(render(SOURCE_ARTICLE_TEXT, article.getContent(), article.getContentType(), null));
+            if (article.getSummary() != null) {
+                article.setRenderedSummary(render(SOURCE_ARTICLE_SUMMARY, article.getSummary(), article.getContentType(), null));
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to render article #" + article.getId(), e);
+        }
+    }
+
+    @Override
+    public void renderComment(Comment comment) {
+        comment.setRenderVersion(ContentUtils.RENDER_VERSION);
+        comment.setRenderedContent(null);
+        try {
+            comment.setRenderedContent(render(SOURCE_COMMENT_TEXT, comment.getContent(), comment.getContentType(), null));
+        } catch (Exception e) {
+            logger.warn("Unable to render comment #" + comment.getId(), e);
+        }
+    }
+
+    @Override
+    public boolean renderStaleContent(int count) {
+        // only report progress for rows actually updated, so a row that can't be stamped never loops
+        boolean updated = false;
+
+        for (Article article : articleDao.listRenderStale(ContentUtils.RENDER_VERSION, count)) {
+            logger.info("Rendering article #" + article.getId());
+            renderArticle(article);
+            updated |= articleDao.saveRendered(article);
+        }
+
+        for (Comment comment : commentDao.listRenderStale(ContentUtils.RENDER_VERSION, count)) {
+            logger.info("Rendering comment #" + comment.getId());
+            renderComment(comment);
+            updated |= commentDao.saveRendered(comment);
+        }
+
+        return updated;
+    }
+
+    private boolean isRenderCurrent(Integer renderVersion, String rendered) {
+        return rendered != null && renderVersion != null && renderVersion == ContentUtils.RENDER_VERSION;
+    }
+
+    private Date articleVersion(Article article) {
+        return article.getModificationDate() == null ? article.getCreationDate() : article.getModificationDate();
+    }
+
+    private String format(String source, Long id, Date version, String content, ContentType contentType, URL baseUrl)
+            throws TransformerException, IOException, SAXException {
+
+        if (content == null) {
+            return null;
+        }
+
+        if (id == null) {
+            // not yet persisted; nothing stable to key on
+            return render(source, content, contentType, baseUrl);
+        }
+
+        var key = new FormattedContentKey(source, id, contentType, version, content, baseUrl);
+        String formatted = contentCache.formattedContent().getIfPresent(key);
+        if (formatted == null) {
+            formatted = render(source, content, contentType, baseUrl);
+            contentCache.formattedContent().put(key, formatted);
+        }
+        return formatted;
+    }
+
+    private String render(String source, String content, ContentType contentType, URL baseUrl)
+            throws TransformerException, IOException, SAXException {
+        try (var ignored = metrics.timer("content.format." + source).time()) {
+            return ContentUtils.formatText(content, baseUrl, contentType, contentFilter);
+        }
+    }
+
+}
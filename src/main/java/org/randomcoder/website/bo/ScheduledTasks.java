@@ -17,6 +17,7 @@ import java.util.concurrent.TimeUnit;
 public class ScheduledTasks {
 
     public static final int DEFAULT_MODERATION_BATCH_SIZE = 5;
+    public static final int DEFAULT_RENDER_BATCH_SIZE = 20;
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTasks.class);
 
@@ -25,15 +26,23 @@ public class ScheduledTasks {
     @Inject
     ArticleBusiness articleBusiness;
 
+    @Inject
+    ContentBusiness contentBusiness;
+
     @Inject
     @Named(Config.MODERATION_BATCH_SIZE)
     int moderationBatchSize = DEFAULT_MODERATION_BATCH_SIZE;
 
+    @Inject
+    @Named(Config.RENDER_BATCH_SIZE)
+    int renderBatchSize = DEFAULT_RENDER_BATCH_SIZE;
+
     @PostConstruct
     public void start() {
         logger.info("Starting scheduled task executor...");
         executor = Executors.newScheduledThreadPool(1);
         executor.scheduleWithFixedDelay(this::moderateComments, 60, 60, TimeUnit.SECONDS);
+        executor.scheduleWithFixedDelay(this::renderStaleContent, 15, 3600, TimeUnit.SECONDS);
     }
 
     @PreDestroy
@@ -56,4 +65,15 @@ public class ScheduledTasks {
         }
     }
 
+    public void renderStaleContent() {
+        try {
+            boolean processed;
+            do {
+                processed = contentBusiness.renderStaleContent(renderBatchSize);
+            } while (processed);
+        } catch (Exception e) {
+            logger.error("Error while rendering content", e);
+        }
+    }
+
 }
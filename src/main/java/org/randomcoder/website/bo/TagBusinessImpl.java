@@ -66,14 +66,14 @@ public class TagBusinessImpl implements TagBusiness {
         visitor.accept(tag);
         tagDao.save(tag);
         tagCache.clearAll();
-        articleCache.clearAll();
+        articleCache.invalidateTag(tag.getId());
     }
 
     @Override
     public void deleteTag(Long tagId) {
         tagDao.deleteById(tagId);
         tagCache.clearAll();
-        articleCache.clearAll();
+        articleCache.invalidateTag(tagId);
     }
 
     @Override
@@ -2,22 +2,65 @@ package org.randomcoder.website.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Page;
 
+import java.time.YearMonth;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 public interface ArticleCache {
 
     void clearAll();
 
-    Cache<ArticlesBetweenDatesKey, List<Article>> articlesBetweenDates();
+    // removes the entries which could include the article, and rendered pages; returns the article entries removed
+    int invalidate(ArticleChange change);
 
-    Cache<ArticlesBeforeDateRangeKey, Page<Article>> articlesBeforeDateRange();
+    // for when the tag itself changes
+    int invalidateTag(long tagId);
 
-    Cache<ArticlesByTagBetweenDatesKey, List<Article>> articlesByTagBetweenDates();
+    // for an article which no longer exists; removes it and its permalink
+    int invalidateArticle(long articleId);
 
-    Cache<ArticlesByTagBeforeDateRangeKey, Page<Article>> articlesByTagBeforeDateRange();
+    // null if the article isn't cached
+    Date findCreationDate(long articleId);
 
-    Cache<Integer, List<Article>> articlesRecentLimit();
+    // moves on with every invalidation; read it before loading articles which are to be put
+    long generation();
+
+    // returns the ids in order; articles aren't cached if anything was invalidated since the generation was read
+    List<Long> putArticles(ArticleProjection projection, List<Article> articles, long generation);
+
+    // returns the articles in order, or null if any no longer exist
+    List<Article> resolveArticles(
+            ArticleProjection projection, List<Long> articleIds, Function<Set<Long>, List<Article>> loader);
+
+    // articles by id, shared by the lists below, which only hold ids
+    Cache<ArticleKey, Article> articles();
+
+    // article ids by permalink, for finding an article page's cache entry
+    Cache<String, Long> permalinks();
+
+    Cache<ArticlesBetweenDatesKey, List<Long>> articlesBetweenDates();
+
+    Cache<ArticlesBeforeDateRangeKey, Page<Long>> articlesBeforeDateRange();
+
+    Cache<ArticlesByTagBetweenDatesKey, List<Long>> articlesByTagBetweenDates();
+
+    Cache<ArticlesByTagBeforeDateRangeKey, Page<Long>> articlesByTagBeforeDateRange();
+
+    Cache<Integer, List<Long>> articlesRecentLimit();
+
+    // totals for pages read by cursor, which can't be counted from the page query itself
+    Cache<ArticleCountKey, Long> articleCounts();
+
+    Cache<YearMonth, List<YearMonth>> archiveMonths();
+
+    // days of each month with articles, with bit 0 for the 1st
+    Cache<YearMonth, Integer> daysWithArticles();
+
+    Cache<ArticlesByTagMonthKey, Integer> daysWithArticlesByTag();
 
 }
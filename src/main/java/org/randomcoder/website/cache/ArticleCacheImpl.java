@@ -1,6 +1,7 @@
 package org.randomcoder.website.cache;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
 import com.codahale.metrics.caffeine.MetricsStatsCounter;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
@@ -9,52 +10,97 @@ import com.github.benmanes.caffeine.cache.stats.StatsCounter;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
+import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
 
 import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 @Singleton
 public class ArticleCacheImpl implements ArticleCache {
 
-    private final Cache<ArticlesBetweenDatesKey, List<Article>> articlesBetweenDates;
-    private final Cache<ArticlesBeforeDateRangeKey, Page<Article>> articlesBeforeDateRange;
-    private final Cache<ArticlesByTagBetweenDatesKey, List<Article>> articlesByTagBetweenDates;
-    private final Cache<ArticlesByTagBeforeDateRangeKey, Page<Article>> articlesByTagBeforeDateRange;
-    private final Cache<Integer, List<Article>> articlesRecentLimit;
+    private final Cache<ArticleKey, Article> articles;
+    private final Cache<String, Long> permalinks;
+    private final Cache<ArticlesBetweenDatesKey, List<Long>> articlesBetweenDates;
+    private final Cache<ArticlesBeforeDateRangeKey, Page<Long>> articlesBeforeDateRange;
+    private final Cache<ArticlesByTagBetweenDatesKey, List<Long>> articlesByTagBetweenDates;
+    private final Cache<ArticlesByTagBeforeDateRangeKey, Page<Long>> articlesByTagBeforeDateRange;
+    private final Cache<Integer, List<Long>> articlesRecentLimit;
+    private final Cache<ArticleCountKey, Long> articleCounts;
+    private final Cache<YearMonth, List<YearMonth>> archiveMonths;
+    private final Cache<YearMonth, Integer> daysWithArticles;
+    private final Cache<ArticlesByTagMonthKey, Integer> daysWithArticlesByTag;
+    private final PageCache pageCache;
+    private final FragmentCache fragmentCache;
+    private final FeedCache feedCache;
+    private final MetricRegistry metrics;
+    private final AtomicLong generation = new AtomicLong();
 
     @Inject
-    public ArticleCacheImpl(MetricRegistry metrics) {
+    public ArticleCacheImpl(MetricRegistry metrics, PageCache pageCache, FragmentCache fragmentCache, FeedCache feedCache) {
+        this.pageCache = pageCache;
+        this.fragmentCache = fragmentCache;
+        this.feedCache = feedCache;
+        this.metrics = metrics;
+
+        // each article is held once per projection, however many lists it appears in
+        articles = Caffeine
+                .newBuilder()
+                .maximumWeight(40_000_000)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .weigher((ArticleKey k, Article v) -> articleWeight(v))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.entities"))
+                .build();
+
+        permalinks = Caffeine
+                .newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(Duration.ofMinutes(60))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.permalinks"))
+                .build();
 
         articlesBetweenDates = Caffeine
                 .newBuilder()
-                .maximumWeight(10_000_000)
+                .maximumWeight(1_000_000)
                 .expireAfterAccess(Duration.ofMinutes(15))
-                .weigher(this::articlesBetweenDatesWeight)
+                .weigher((ArticlesBetweenDatesKey k, List<Long> v) -> idsWeight(v))
                 .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.between.dates"))
                 .build();
 
         articlesBeforeDateRange = Caffeine
                 .newBuilder()
-                .maximumWeight(10_000_000)
+                .maximumWeight(1_000_000)
                 .expireAfterAccess(Duration.ofMinutes(15))
-                .weigher(this::articlesBeforeDateRangeWeight)
+                .weigher((ArticlesBeforeDateRangeKey k, Page<Long> v) -> idsWeight(v.getContent()))
                 .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.before.date.range"))
                 .build();
 
         articlesByTagBetweenDates = Caffeine
                 .newBuilder()
-                .maximumWeight(10_000_000)
+                .maximumWeight(1_000_000)
                 .expireAfterAccess(Duration.ofMinutes(15))
-                .weigher(this::articlesBetweenDatesWeight)
+                .weigher((ArticlesByTagBetweenDatesKey k, List<Long> v) -> idsWeight(v))
                 .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.by.tag.between.dates"))
                 .build();
 
         articlesByTagBeforeDateRange = Caffeine
                 .newBuilder()
-                .maximumWeight(10_000_000)
+                .maximumWeight(1_000_000)
                 .expireAfterAccess(Duration.ofMinutes(15))
-                .weigher(this::articlesBeforeDateRangeWeight)
+                .weigher((ArticlesByTagBeforeDateRangeKey k, Page<Long> v) -> idsWeight(v.getContent()))
                 .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.by.tag.before.date.range"))
                 .build();
 
@@ -63,27 +109,265 @@ public class ArticleCacheImpl implements ArticleCache {
                 .maximumSize(10)
                 .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.recent.limit"))
                 .build();
+
+        articleCounts = Caffeine
+                .newBuilder()
+                .maximumSize(1000)
+                .expireAfterAccess(Duration.ofMinutes(60))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.counts"))
+                .build();
+
+        archiveMonths = Caffeine
+                .newBuilder()
+                .maximumSize(2)
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.archive.months"))
+                .build();
+
+        daysWithArticles = Caffeine
+                .newBuilder()
+                .maximumSize(1000)
+                .expireAfterAccess(Duration.ofMinutes(60))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.days.with.articles"))
+                .build();
+
+        daysWithArticlesByTag = Caffeine
+                .newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(Duration.ofMinutes(60))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.articles.days.with.articles.by.tag"))
+                .build();
+
+        registerHitRatio(metrics, "cache.articles.entities", articles);
+        registerHitRatio(metrics, "cache.articles.permalinks", permalinks);
+        registerHitRatio(metrics, "cache.articles.between.dates", articlesBetweenDates);
+        registerHitRatio(metrics, "cache.articles.before.date.range", articlesBeforeDateRange);
+        registerHitRatio(metrics, "cache.articles.by.tag.between.dates", articlesByTagBetweenDates);
+        registerHitRatio(metrics, "cache.articles.by.tag.before.date.range", articlesByTagBeforeDateRange);
+        registerHitRatio(metrics, "cache.articles.recent.limit", articlesRecentLimit);
+        registerHitRatio(metrics, "cache.articles.counts", articleCounts);
+        registerHitRatio(metrics, "cache.articles.archive.months", archiveMonths);
+        registerHitRatio(metrics, "cache.articles.days.with.articles", daysWithArticles);
+        registerHitRatio(metrics, "cache.articles.days.with.articles.by.tag", daysWithArticlesByTag);
     }
 
     @Override
     public void clearAll() {
+        generation.incrementAndGet();
+        articles.invalidateAll();
+        permalinks.invalidateAll();
         articlesBetweenDates.invalidateAll();
         articlesBeforeDateRange.invalidateAll();
         articlesByTagBetweenDates.invalidateAll();
         articlesByTagBeforeDateRange.invalidateAll();
         articlesRecentLimit.invalidateAll();
+        articleCounts.invalidateAll();
+        archiveMonths.invalidateAll();
+        daysWithArticles.invalidateAll();
+        daysWithArticlesByTag.invalidateAll();
+        pageCache.clearAll();
+        fragmentCache.clearAll();
+        feedCache.clearFeeds();
+    }
+
+    @Override
+    public int invalidate(ArticleChange change) {
+        long created = change.creationDate().getTime();
+        YearMonth month = change.month();
+        var tagIds = change.tagIds();
+
+        generation.incrementAndGet();
+        int count = removeArticle(change.articleId());
+        if (change.type() != ArticleChange.Type.COMMENTS_CHANGED) {
+            // the permalink may have been changed or freed
+            count += invalidateIf(permalinks, (k, v) -> v == change.articleId());
+        }
+
+        // lists only hold ids, which don't change unless the article is added, removed or retagged
+        count += invalidateIf(articlesByTagBetweenDates, (k, v) ->
+                tagIds.contains(k.tagId()) && between(created, k.startDate(), k.endDate()));
+        count += invalidateIf(articlesByTagBeforeDateRange, (k, v) ->
+                tagIds.contains(k.tagId()) && before(created, k.endDate(), k.after()));
+        count += invalidateIf(daysWithArticlesByTag, (k, v) -> tagIds.contains(k.tagId()) && k.month().equals(month));
+        count += invalidateIf(articleCounts, (k, v) ->
+                k.tagId() != null && tagIds.contains(k.tagId()) && created < k.endDate());
+
+        if (change.changesMembership()) {
+            count += invalidateIf(articlesBetweenDates, (k, v) -> between(created, k.startDate(), k.endDate()));
+            count += invalidateIf(articlesBeforeDateRange, (k, v) -> before(created, k.endDate(), k.after()));
+            count += invalidateIf(articleCounts, (k, v) -> k.tagId() == null && created < k.endDate());
+            count += invalidateIf(articlesRecentLimit, (k, v) -> v.size() < k || !createdAfter(v.get(v.size() - 1), created));
+
+            // the current month is never listed, so only a change to an earlier month can alter the list
+            count += invalidateIf(archiveMonths, (k, v) -> month.isBefore(k));
+            count += invalidateIf(daysWithArticles, (k, v) -> k.equals(month));
+            fragmentCache.clearFragment(FragmentKey.CALENDAR);
+
+            // archives link to their neighbours, which change if a past month gains or loses its only article
+            if (month.isBefore(YearMonth.now())) {
+                feedCache.clearArchives();
+            }
+        }
+
+        metrics.histogram("cache.articles.invalidated." + change.type().metricName()).update(count);
+
+        // rendered pages and subscription feeds are cheap to rebuild once the entries above are reloaded
+        pageCache.clearAll();
+        feedCache.clearFeeds();
+        feedCache.clearArchives(month);
+
+        return count;
+    }
+
+    @Override
+    public int invalidateTag(long tagId) {
+        generation.incrementAndGet();
+        int count = 0;
+        count += invalidateIf(articles, (k, v) -> tagged(v, tagId));
+        count += invalidateIf(articlesByTagBetweenDates, (k, v) -> k.tagId() == tagId);
+        count += invalidateIf(articlesByTagBeforeDateRange, (k, v) -> k.tagId() == tagId);
+        count += invalidateIf(daysWithArticlesByTag, (k, v) -> k.tagId() == tagId);
+        count += invalidateIf(articleCounts, (k, v) -> k.tagId() != null && k.tagId() == tagId);
+
+        metrics.histogram("cache.articles.invalidated.tag").update(count);
+
+        return count;
+    }
+
+    @Override
+    public int invalidateArticle(long articleId) {
+        generation.incrementAndGet();
+        int count = removeArticle(articleId);
+        count += invalidateIf(permalinks, (k, v) -> v == articleId);
+
+        metrics.histogram("cache.articles.invalidated.article").update(count);
+
+        return count;
+    }
+
+    @Override
+    public Date findCreationDate(long articleId) {
+        for (ArticleProjection projection : ArticleProjection.values()) {
+            Article article = articles.getIfPresent(new ArticleKey(projection, articleId));
+            if (article != null) {
+                return article.getCreationDate();
+            }
+        }
+        return null;
+    }
+
+    private int removeArticle(long articleId) {
+        int count = 0;
+        for (ArticleProjection projection : ArticleProjection.values()) {
+            if (articles.asMap().remove(new ArticleKey(projection, articleId)) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    @Override
+    public List<Long> putArticles(ArticleProjection projection, List<Article> articles, long generation) {
+        List<Long> ids = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            putArticle(new ArticleKey(projection, article.getId()), article, generation);
+            ids.add(article.getId());
+        }
+        return ids;
+    }
+
+    private void putArticle(ArticleKey key, Article article, long generation) {
+        // invalidations bump the generation before removing entries, and a removal waits for this compute, so an
+        // article loaded before an invalidation is either skipped here or removed by it
+        articles.asMap().compute(key, (k, v) -> this.generation.get() == generation ? article : v);
+    }
+
+    @Override
+    public List<Article> resolveArticles(
+            ArticleProjection projection, List<Long> articleIds, Function<Set<Long>, List<Article>> loader) {
+        List<ArticleKey> keys = new ArrayList<>(articleIds.size());
+        for (Long id : articleIds) {
+            keys.add(new ArticleKey(projection, id));
+        }
+
+        long generation = this.generation.get();
+        Map<ArticleKey, Article> found = new HashMap<>(articles.getAllPresent(keys));
+        if (found.size() < keys.size()) {
+            Set<Long> ids = new HashSet<>();
+            for (ArticleKey key : keys) {
+                if (!found.containsKey(key)) {
+                    ids.add(key.articleId());
+                }
+            }
+            for (Article article : loader.apply(ids)) {
+                var key = new ArticleKey(projection, article.getId());
+                putArticle(key, article, generation);
+                found.put(key, article);
+            }
+        }
+
+        List<Article> result = new ArrayList<>(keys.size());
+        for (ArticleKey key : keys) {
+            Article article = found.get(key);
+            if (article == null) {
+                return null;
+            }
+            result.add(article);
+        }
+        return result;
     }
 
-    private int articlesBetweenDatesWeight(Object key, List<Article> value) {
-        return 100 + value.stream()
-                .mapToInt(this::articleWeight)
-                .sum();
+    // whether a listed article is known to be newer than a change, which can't be told once it's evicted
+    private boolean createdAfter(Long articleId, long created) {
+        Date creationDate = findCreationDate(articleId);
+        return creationDate != null && creationDate.getTime() > created;
     }
 
-    private int articlesBeforeDateRangeWeight(Object key, Page<Article> value) {
-        return 100 + value.getContent().stream()
-                .mapToInt(this::articleWeight)
-                .sum();
+    private static boolean between(long created, long startDate, long endDate) {
+        return startDate <= created && created < endDate;
+    }
+
+    private static boolean before(long created, long endDate, ArticleCursor after) {
+        // cursors are finer than a Date, so a tie might still sort before the cursor
+        return created < endDate && (after == null || created <= after.createDate().toEpochMilli());
+    }
+
+    private static boolean tagged(Article article, long tagId) {
+        for (Tag tag : article.getTags()) {
+            if (tag.getId() != null && tag.getId() == tagId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <K, V> int invalidateIf(Cache<K, V> cache, BiPredicate<K, V> predicate) {
+        int count = 0;
+        var map = cache.asMap();
+        for (var entry : map.entrySet()) {
+            if (predicate.test(entry.getKey(), entry.getValue()) && map.remove(entry.getKey(), entry.getValue())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void registerHitRatio(MetricRegistry metrics, String name, Cache<?, ?> cache) {
+        metrics.gauge(name + ".hit.ratio", () -> new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                var stats = cache.stats();
+                return Ratio.of(stats.hitCount(), stats.requestCount());
+            }
+        });
+    }
+
+    private static int idsWeight(List<Long> ids) {
+        return 100 + 8 * ids.size();
     }
 
     private int articleWeight(Article article) {
@@ -96,6 +380,30 @@ public class ArticleCacheImpl implements ArticleCache {
         if (summary != null) {
             size += summary.length();
         }
+        var renderedContent = article.getRenderedContent();
+        if (renderedContent != null) {
+            size += renderedContent.length();
+        }
+        var renderedSummary = article.getRenderedSummary();
+        if (renderedSummary != null) {
+            size += renderedSummary.length();
+        }
+        for (Comment comment : article.getComments()) {
+            size += commentWeight(comment);
+        }
+        return size;
+    }
+
+    private int commentWeight(Comment comment) {
+        int size = 100;
+        var content = comment.getContent();
+        if (content != null) {
+            size += content.length();
+        }
+        var renderedContent = comment.getRenderedContent();
+        if (renderedContent != null) {
+            size += renderedContent.length();
+        }
         return size;
     }
 
@@ -104,28 +412,58 @@ public class ArticleCacheImpl implements ArticleCache {
     }
 
     @Override
-    public Cache<ArticlesBetweenDatesKey, List<Article>> articlesBetweenDates() {
+    public Cache<ArticleKey, Article> articles() {
+        return articles;
+    }
+
+    @Override
+    public Cache<String, Long> permalinks() {
+        return permalinks;
+    }
+
+    @Override
+    public Cache<ArticlesBetweenDatesKey, List<Long>> articlesBetweenDates() {
         return articlesBetweenDates;
     }
 
     @Override
-    public Cache<ArticlesBeforeDateRangeKey, Page<Article>> articlesBeforeDateRange() {
+    public Cache<ArticlesBeforeDateRangeKey, Page<Long>> articlesBeforeDateRange() {
         return articlesBeforeDateRange;
     }
 
     @Override
-    public Cache<ArticlesByTagBetweenDatesKey, List<Article>> articlesByTagBetweenDates() {
+    public Cache<ArticlesByTagBetweenDatesKey, List<Long>> articlesByTagBetweenDates() {
         return articlesByTagBetweenDates;
     }
 
     @Override
-    public Cache<ArticlesByTagBeforeDateRangeKey, Page<Article>> articlesByTagBeforeDateRange() {
+    public Cache<ArticlesByTagBeforeDateRangeKey, Page<Long>> articlesByTagBeforeDateRange() {
         return articlesByTagBeforeDateRange;
     }
 
     @Override
-    public Cache<Integer, List<Article>> articlesRecentLimit() {
+    public Cache<Integer, List<Long>> articlesRecentLimit() {
         return articlesRecentLimit;
     }
 
+    @Override
+    public Cache<ArticleCountKey, Long> articleCounts() {
+        return articleCounts;
+    }
+
+    @Override
+    public Cache<YearMonth, List<YearMonth>> archiveMonths() {
+        return archiveMonths;
+    }
+
+    @Override
+    public Cache<YearMonth, Integer> daysWithArticles() {
+        return daysWithArticles;
+    }
+
+    @Override
+    public Cache<ArticlesByTagMonthKey, Integer> daysWithArticlesByTag() {
+        return daysWithArticlesByTag;
+    }
+
 }
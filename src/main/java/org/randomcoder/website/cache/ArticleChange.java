@@ -0,0 +1,72 @@
+package org.randomcoder.website.cache;
+
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Tag;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// what's needed to find the cache entries a change could affect; tagIds are the tags which gained or lost the article
+public record ArticleChange(Type type, long articleId, Date creationDate, Set<Long> tagIds) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        COMMENTS_CHANGED;
+
+        public String metricName() {
+            return name().toLowerCase(Locale.US).replace('_', '.');
+        }
+    }
+
+    public static ArticleChange created(Article article) {
+        return new ArticleChange(Type.CREATED, article.getId(), article.getCreationDate(), tagIds(article));
+    }
+
+    public static ArticleChange updated(Article article, Set<Long> previousTagIds) {
+        var currentTagIds = tagIds(article);
+
+        var changedTagIds = new HashSet<>(previousTagIds);
+        changedTagIds.addAll(currentTagIds);
+        changedTagIds.removeIf(id -> previousTagIds.contains(id) && currentTagIds.contains(id));
+
+        return new ArticleChange(Type.UPDATED, article.getId(), article.getCreationDate(), Set.copyOf(changedTagIds));
+    }
+
+    public static ArticleChange deleted(Article article) {
+        return new ArticleChange(Type.DELETED, article.getId(), article.getCreationDate(), tagIds(article));
+    }
+
+    public static ArticleChange commentsChanged(Article article) {
+        return commentsChanged(article.getId(), article.getCreationDate());
+    }
+
+    public static ArticleChange commentsChanged(long articleId, Date creationDate) {
+        return new ArticleChange(Type.COMMENTS_CHANGED, articleId, creationDate, Set.of());
+    }
+
+    public static Set<Long> tagIds(Article article) {
+        var tagIds = new HashSet<Long>();
+        for (Tag tag : article.getTags()) {
+            if (tag.getId() != null) {
+                tagIds.add(tag.getId());
+            }
+        }
+        return Set.copyOf(tagIds);
+    }
+
+    // whether the article was added or removed, rather than just changed
+    public boolean changesMembership() {
+        return type == Type.CREATED || type == Type.DELETED;
+    }
+
+    public YearMonth month() {
+        return YearMonth.from(creationDate.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+}
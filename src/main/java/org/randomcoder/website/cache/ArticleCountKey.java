@@ -0,0 +1,14 @@
+package org.randomcoder.website.cache;
+
+import org.randomcoder.website.data.Tag;
+
+import java.util.Date;
+
+// tag id is null for the count of all articles
+public record ArticleCountKey(Long tagId, long endDate) {
+
+    public ArticleCountKey(Tag tag, Date endDate) {
+        this(tag == null ? null : tag.getId(), CutoffDates.normalize(endDate));
+    }
+
+}
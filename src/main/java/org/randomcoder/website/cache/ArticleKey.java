@@ -0,0 +1,6 @@
+package org.randomcoder.website.cache;
+
+import org.randomcoder.website.data.ArticleProjection;
+
+public record ArticleKey(ArticleProjection projection, long articleId) {
+}
@@ -1,11 +1,16 @@
 package org.randomcoder.website.cache;
 
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
+
 import java.util.Date;
 
-public record ArticlesBeforeDateRangeKey(long endDate, long offset, long limit) {
+public record ArticlesBeforeDateRangeKey(
+        ArticleProjection projection, long endDate, ArticleCursor after, long offset, long limit) {
 
-    public ArticlesBeforeDateRangeKey(Date endDate, long offset, long limit) {
-        this(endDate.getTime(), offset, limit);
+    public ArticlesBeforeDateRangeKey(
+            ArticleProjection projection, Date endDate, ArticleCursor after, long offset, long limit) {
+        this(projection, CutoffDates.normalize(endDate), after, offset, limit);
     }
 
 }
@@ -1,11 +1,13 @@
 package org.randomcoder.website.cache;
 
+import org.randomcoder.website.data.ArticleProjection;
+
 import java.util.Date;
 
-public record ArticlesBetweenDatesKey(long startDate, long endDate) {
+public record ArticlesBetweenDatesKey(ArticleProjection projection, long startDate, long endDate) {
 
-    public ArticlesBetweenDatesKey(Date startDate, Date endDate) {
-        this(startDate.getTime(), endDate.getTime());
+    public ArticlesBetweenDatesKey(ArticleProjection projection, Date startDate, Date endDate) {
+        this(projection, startDate.getTime(), CutoffDates.normalize(endDate));
     }
 
 }
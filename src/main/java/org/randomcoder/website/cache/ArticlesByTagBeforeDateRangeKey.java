@@ -1,13 +1,17 @@
 package org.randomcoder.website.cache;
 
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Tag;
 
 import java.util.Date;
 
-public record ArticlesByTagBeforeDateRangeKey(long tagId, long endDate, long offset, long limit) {
+public record ArticlesByTagBeforeDateRangeKey(
+        ArticleProjection projection, long tagId, long endDate, ArticleCursor after, long offset, long limit) {
 
-    public ArticlesByTagBeforeDateRangeKey(Tag tag, Date endDate, long offset, long limit) {
-        this(tag.getId(), endDate.getTime(), offset, limit);
+    public ArticlesByTagBeforeDateRangeKey(
+            ArticleProjection projection, Tag tag, Date endDate, ArticleCursor after, long offset, long limit) {
+        this(projection, tag.getId(), CutoffDates.normalize(endDate), after, offset, limit);
     }
 
 }
@@ -1,13 +1,14 @@
 package org.randomcoder.website.cache;
 
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Tag;
 
 import java.util.Date;
 
-public record ArticlesByTagBetweenDatesKey(long tagId, long startDate, long endDate) {
+public record ArticlesByTagBetweenDatesKey(ArticleProjection projection, long tagId, long startDate, long endDate) {
 
-    public ArticlesByTagBetweenDatesKey(Tag tag, Date startDate, Date endDate) {
-        this(tag.getId(), startDate.getTime(), endDate.getTime());
+    public ArticlesByTagBetweenDatesKey(ArticleProjection projection, Tag tag, Date startDate, Date endDate) {
+        this(projection, tag.getId(), startDate.getTime(), CutoffDates.normalize(endDate));
     }
 
 }
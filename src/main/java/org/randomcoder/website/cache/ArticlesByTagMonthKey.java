@@ -0,0 +1,13 @@
+package org.randomcoder.website.cache;
+
+import org.randomcoder.website.data.Tag;
+
+import java.time.YearMonth;
+
+public record ArticlesByTagMonthKey(long tagId, YearMonth month) {
+
+    public ArticlesByTagMonthKey(Tag tag, YearMonth month) {
+        this(tag.getId(), month);
+    }
+
+}
@@ -0,0 +1,11 @@
+package org.randomcoder.website.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public interface AvatarCache {
+
+    void clearAll();
+
+    Cache<String, String> avatarUrls();
+
+}
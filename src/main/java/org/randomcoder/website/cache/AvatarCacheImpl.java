@@ -0,0 +1,35 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.caffeine.MetricsStatsCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class AvatarCacheImpl implements AvatarCache {
+
+    private final Cache<String, String> avatarUrls;
+
+    @Inject
+    public AvatarCacheImpl(MetricRegistry metrics) {
+        // keyed by raw email address; the url is a pure function of it, so entries never go stale
+        avatarUrls = Caffeine
+                .newBuilder()
+                .maximumSize(10_000)
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.avatars"))
+                .build();
+    }
+
+    @Override
+    public void clearAll() {
+        avatarUrls.invalidateAll();
+    }
+
+    @Override
+    public Cache<String, String> avatarUrls() {
+        return avatarUrls;
+    }
+
+}
@@ -0,0 +1,13 @@
+package org.randomcoder.website.cache;
+
+import jakarta.ws.rs.core.EntityTag;
+
+import java.util.Date;
+
+public record CachedFeed(EntityTag tag, Date lastModified, byte[] content) {
+
+    public static CachedFeed of(Date lastModified, byte[] content) {
+        return new CachedFeed(CachedPage.of(content).tag(), lastModified, content);
+    }
+
+}
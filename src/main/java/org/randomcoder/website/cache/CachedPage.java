@@ -0,0 +1,21 @@
+package org.randomcoder.website.cache;
+
+import jakarta.ws.rs.core.EntityTag;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public record CachedPage(EntityTag tag, byte[] content) {
+
+    public static CachedPage of(byte[] content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA256");
+            digest.update(content);
+            return new CachedPage(new EntityTag(HexFormat.of().formatHex(digest.digest())), content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unable to get SHA-256", e);
+        }
+    }
+
+}
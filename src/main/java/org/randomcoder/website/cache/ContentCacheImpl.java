@@ -0,0 +1,39 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.caffeine.MetricsStatsCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+@Singleton
+public class ContentCacheImpl implements ContentCache {
+
+    private final Cache<FormattedContentKey, String> formattedContent;
+
+    @Inject
+    public ContentCacheImpl(MetricRegistry metrics) {
+        // keys are versioned by modification date and content hash, so edits never see stale output
+        formattedContent = Caffeine
+                .newBuilder()
+                .maximumWeight(8_000_000)
+                .weigher((FormattedContentKey k, String v) -> v.length())
+                .expireAfterAccess(Duration.ofHours(1))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.content.formatted"))
+                .build();
+    }
+
+    @Override
+    public void clearAll() {
+        formattedContent.invalidateAll();
+    }
+
+    @Override
+    public Cache<FormattedContentKey, String> formattedContent() {
+        return formattedContent;
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.randomcoder.website.cache;
+
+import java.util.Date;
+
+// articles are never created in the future, so cache keys map every end date after now to LATEST
+public final class CutoffDates {
+
+    public static final long LATEST = Long.MAX_VALUE;
+
+    private CutoffDates() {
+    }
+
+    public static long normalize(Date endDate) {
+        return normalize(endDate, System.currentTimeMillis());
+    }
+
+    static long normalize(Date endDate, long now) {
+        long time = endDate.getTime();
+        return time > now ? LATEST : time;
+    }
+
+}
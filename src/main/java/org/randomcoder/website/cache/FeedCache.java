@@ -0,0 +1,24 @@
+package org.randomcoder.website.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.time.YearMonth;
+
+public interface FeedCache {
+
+    void clearAll();
+
+    void clearFeeds();
+
+    void clearArchives();
+
+    // removes a month's archive documents in every feed format
+    void clearArchives(YearMonth month);
+
+    Cache<String, CachedFeed> feeds();
+
+    Cache<FeedEntryKey, byte[]> entries();
+
+    Cache<String, CachedFeed> archives();
+
+}
@@ -0,0 +1,86 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.caffeine.MetricsStatsCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.time.YearMonth;
+
+@Singleton
+public class FeedCacheImpl implements FeedCache {
+
+    private final Cache<String, CachedFeed> feeds;
+    private final Cache<FeedEntryKey, byte[]> entries;
+    private final Cache<String, CachedFeed> archives;
+
+    @Inject
+    public FeedCacheImpl(MetricRegistry metrics) {
+        // cleared along with the article cache whenever an article or comment changes
+        feeds = Caffeine
+                .newBuilder()
+                .maximumSize(100)
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.feeds"))
+                .build();
+
+        // keyed by article revision, so these survive changes to other articles and are shared between feeds
+        entries = Caffeine
+                .newBuilder()
+                .maximumWeight(10_000_000)
+                .weigher((FeedEntryKey k, byte[] v) -> 100 + v.length)
+                .expireAfterAccess(Duration.ofMinutes(60))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.feed.entries"))
+                .build();
+
+        // archive documents only cover past months, so are kept until an article itself changes
+        archives = Caffeine
+                .newBuilder()
+                .maximumWeight(20_000_000)
+                .weigher((String k, CachedFeed v) -> 100 + k.length() + v.content().length)
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.feed.archives"))
+                .build();
+    }
+
+    @Override
+    public void clearAll() {
+        feeds.invalidateAll();
+        entries.invalidateAll();
+        archives.invalidateAll();
+    }
+
+    @Override
+    public void clearFeeds() {
+        feeds.invalidateAll();
+    }
+
+    @Override
+    public void clearArchives() {
+        archives.invalidateAll();
+    }
+
+    @Override
+    public void clearArchives(YearMonth month) {
+        // keys are <type>-archive-<month>, with the current month appended for the newest archive
+        String infix = "-archive-" + month;
+        archives.asMap().keySet().removeIf(key -> key.contains(infix));
+    }
+
+    @Override
+    public Cache<String, CachedFeed> feeds() {
+        return feeds;
+    }
+
+    @Override
+    public Cache<FeedEntryKey, byte[]> entries() {
+        return entries;
+    }
+
+    @Override
+    public Cache<String, CachedFeed> archives() {
+        return archives;
+    }
+
+}
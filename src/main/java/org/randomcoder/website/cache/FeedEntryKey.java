@@ -0,0 +1,7 @@
+package org.randomcoder.website.cache;
+
+import java.util.Date;
+
+// one revision of an article's entry, per feed content type
+public record FeedEntryKey(String contentType, long articleId, Date revision, int commentCount) {
+}
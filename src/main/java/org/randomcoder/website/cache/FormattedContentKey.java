@@ -0,0 +1,19 @@
+package org.randomcoder.website.cache;
+
+import org.randomcoder.website.data.ContentType;
+
+import java.net.URL;
+import java.util.Date;
+
+public record FormattedContentKey(
+        String source, long id, ContentType contentType, long version, int contentHash, String baseUrl) {
+
+    public FormattedContentKey(
+            String source, long id, ContentType contentType, Date version, String content, URL baseUrl) {
+        this(source, id, contentType,
+                version == null ? 0L : version.getTime(),
+                content.hashCode(),
+                baseUrl == null ? null : baseUrl.toExternalForm());
+    }
+
+}
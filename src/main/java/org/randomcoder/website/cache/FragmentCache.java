@@ -0,0 +1,13 @@
+package org.randomcoder.website.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public interface FragmentCache {
+
+    void clearAll();
+
+    void clearFragment(String fragment);
+
+    Cache<FragmentKey, String> fragments();
+
+}
@@ -0,0 +1,43 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.caffeine.MetricsStatsCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+@Singleton
+public class FragmentCacheImpl implements FragmentCache {
+
+    private final Cache<FragmentKey, String> fragments;
+
+    @Inject
+    public FragmentCacheImpl(MetricRegistry metrics) {
+        fragments = Caffeine
+                .newBuilder()
+                .maximumWeight(5_000_000)
+                .weigher((FragmentKey k, String v) -> 100 + v.length())
+                .expireAfterWrite(Duration.ofMinutes(15))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.fragments"))
+                .build();
+    }
+
+    @Override
+    public void clearAll() {
+        fragments.invalidateAll();
+    }
+
+    @Override
+    public void clearFragment(String fragment) {
+        fragments.asMap().keySet().removeIf(key -> key.fragment().equals(fragment));
+    }
+
+    @Override
+    public Cache<FragmentKey, String> fragments() {
+        return fragments;
+    }
+
+}
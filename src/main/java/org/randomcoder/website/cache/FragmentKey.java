@@ -0,0 +1,10 @@
+package org.randomcoder.website.cache;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public record FragmentKey(String fragment, String tag, YearMonth month, LocalDate date) {
+
+    public static final String CALENDAR = "sidebar/calendar";
+    public static final String TAG_CLOUD = "sidebar/tagcloud";
+}
@@ -0,0 +1,11 @@
+package org.randomcoder.website.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+public interface PageCache {
+
+    void clearAll();
+
+    Cache<PageKey, CachedPage> pages();
+
+}
@@ -0,0 +1,39 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.caffeine.MetricsStatsCounter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+
+@Singleton
+public class PageCacheImpl implements PageCache {
+
+    private final Cache<PageKey, CachedPage> pages;
+
+    @Inject
+    public PageCacheImpl(MetricRegistry metrics) {
+        // expire after write so time-dependent output (calendar, scheduled articles) never goes far out of date
+        pages = Caffeine
+                .newBuilder()
+                .maximumWeight(20_000_000)
+                .weigher((PageKey k, CachedPage v) -> 100 + k.uri().length() + v.content().length)
+                .expireAfterWrite(Duration.ofMinutes(15))
+                .recordStats(() -> new MetricsStatsCounter(metrics, "cache.pages"))
+                .build();
+    }
+
+    @Override
+    public void clearAll() {
+        pages.invalidateAll();
+    }
+
+    @Override
+    public Cache<PageKey, CachedPage> pages() {
+        return pages;
+    }
+
+}
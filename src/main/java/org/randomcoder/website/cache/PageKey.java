@@ -0,0 +1,6 @@
+package org.randomcoder.website.cache;
+
+import java.time.LocalDate;
+
+public record PageKey(String uri, LocalDate date) {
+}
@@ -9,6 +9,9 @@ public interface TagCache {
 
     void clearAll();
 
+    // for when articles gain or lose tags but the tags themselves are unchanged
+    void clearStatistics();
+
     Cache<EmptyKey, Integer> maxArticleCount();
 
     Cache<EmptyKey, List<TagStatistics>> tagStatistics();
@@ -16,9 +16,15 @@ public class TagCacheImpl implements TagCache {
 
     private final Cache<EmptyKey, Integer> maxArticleCount;
     private final Cache<EmptyKey, List<TagStatistics>> tagStatistics;
+    private final PageCache pageCache;
+    private final FragmentCache fragmentCache;
+    private final FeedCache feedCache;
 
     @Inject
-    public TagCacheImpl(MetricRegistry metrics) {
+    public TagCacheImpl(MetricRegistry metrics, PageCache pageCache, FragmentCache fragmentCache, FeedCache feedCache) {
+        this.pageCache = pageCache;
+        this.fragmentCache = fragmentCache;
+        this.feedCache = feedCache;
         maxArticleCount = Caffeine
                 .newBuilder()
                 .maximumSize(1)
@@ -38,6 +44,18 @@ public class TagCacheImpl implements TagCache {
     public void clearAll() {
         maxArticleCount.invalidateAll();
         tagStatistics.invalidateAll();
+        pageCache.clearAll();
+        fragmentCache.clearAll();
+
+        // feed entries carry tag names, so must go as well
+        feedCache.clearAll();
+    }
+
+    @Override
+    public void clearStatistics() {
+        maxArticleCount.invalidateAll();
+        tagStatistics.invalidateAll();
+        fragmentCache.clearFragment(FragmentKey.TAG_CLOUD);
     }
 
     @Override
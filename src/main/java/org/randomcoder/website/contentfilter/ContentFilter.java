@@ -16,6 +16,8 @@ public interface ContentFilter {
 
     Templates getXSLTemplates(String contentType);
 
+    ContentWriter getContentWriter(URL baseUrl, String contentType);
+
     String getPrefix(String contentType);
 
     String getSuffix(String contentType);
@@ -9,25 +9,32 @@ import org.xml.sax.XMLReader;
 import javax.xml.transform.Result;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.sax.SAXTransformerFactory;
 import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ContentUtils {
 
+    // stamped on persisted rendered content; bump whenever a filter or stylesheet changes its output
+    public static final int RENDER_VERSION = 2;
+
     public static void format(String mimeType, URL baseUrl, InputSource content, ContentFilter filter, Result output)
             throws TransformerException, IOException, SAXException {
-        TransformerFactory tFactory = TransformerFactory.newInstance();
+        if (writeDirect(mimeType, baseUrl, content, filter, output)) {
+            return;
+        }
 
-        SAXTransformerFactory stFactory = (SAXTransformerFactory) tFactory;
+        SAXTransformerFactory stFactory = SaxResources.transformerFactory();
 
         Templates templates = filter.getXSLTemplates(mimeType);
 
@@ -44,6 +51,31 @@ public class ContentUtils {
         reader.parse(content);
     }
 
+    private static boolean writeDirect(String mimeType, URL baseUrl, InputSource content, ContentFilter filter, Result output)
+            throws IOException, SAXException {
+        if (!(output instanceof StreamResult result) || content.getCharacterStream() == null) {
+            return false;
+        }
+
+        ContentWriter contentWriter = filter.getContentWriter(baseUrl, mimeType);
+        if (contentWriter == null) {
+            return false;
+        }
+
+        if (result.getWriter() != null) {
+            contentWriter.write(content.getCharacterStream(), result.getWriter());
+            return true;
+        }
+        if (result.getOutputStream() != null) {
+            // output is always US-ASCII, which is what the stylesheets declare
+            Writer out = new OutputStreamWriter(result.getOutputStream(), StandardCharsets.US_ASCII);
+            contentWriter.write(content.getCharacterStream(), out);
+            out.flush();
+            return true;
+        }
+        return false;
+    }
+
     public static String format(String mimeType, URL baseUrl, InputSource content, ContentFilter filter)
             throws TransformerException, IOException, SAXException {
         StringWriter out = new StringWriter();
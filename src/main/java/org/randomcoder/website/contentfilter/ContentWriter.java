@@ -0,0 +1,14 @@
+package org.randomcoder.website.contentfilter;
+
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+// writes formatted content without XSLT; output must match the filter's reader and templates exactly
+public interface ContentWriter {
+
+    void write(Reader content, Writer out) throws IOException, SAXException;
+
+}
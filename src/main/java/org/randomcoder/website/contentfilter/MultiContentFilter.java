@@ -37,6 +37,11 @@ public class MultiContentFilter implements ContentFilter {
         return getFilterForContentType(contentType).getXSLTemplates(contentType);
     }
 
+    @Override
+    public ContentWriter getContentWriter(URL baseUrl, String contentType) {
+        return getFilterForContentType(contentType).getContentWriter(baseUrl, contentType);
+    }
+
     @Override
     public String getPrefix(String contentType) {
         return getFilterForContentType(contentType).getPrefix(contentType);
@@ -0,0 +1,71 @@
+package org.randomcoder.website.contentfilter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// SAX parsers and transformer factories aren't thread-safe, so each thread keeps its own. The parser is reset each
+// time it is handed out, and mustn't be requested again on the same thread while a parse is in progress.
+public final class SaxResources {
+
+    private static final ThreadLocal<SAXParser> PARSER = new ThreadLocal<>();
+    private static final ThreadLocal<SAXTransformerFactory> TRANSFORMER_FACTORY = new ThreadLocal<>();
+
+    private static final LongAdder parsersCreated = new LongAdder();
+    private static final LongAdder parsersReused = new LongAdder();
+    private static final LongAdder transformerFactoriesCreated = new LongAdder();
+    private static final LongAdder transformerFactoriesReused = new LongAdder();
+
+    private SaxResources() {
+    }
+
+    public static XMLReader namespaceAwareXMLReader() throws SAXException {
+        SAXParser parser = PARSER.get();
+        if (parser == null) {
+            try {
+                SAXParserFactory spf = SAXParserFactory.newInstance();
+                spf.setNamespaceAware(true);
+                parser = spf.newSAXParser();
+            } catch (ParserConfigurationException e) {
+                throw new SAXException(e);
+            }
+            PARSER.set(parser);
+            parsersCreated.increment();
+        } else {
+            parser.reset();
+            parsersReused.increment();
+        }
+        return parser.getXMLReader();
+    }
+
+    public static SAXTransformerFactory transformerFactory() {
+        SAXTransformerFactory factory = TRANSFORMER_FACTORY.get();
+        if (factory == null) {
+            factory = (SAXTransformerFactory) TransformerFactory.newInstance();
+            TRANSFORMER_FACTORY.set(factory);
+            transformerFactoriesCreated.increment();
+        } else {
+            transformerFactoriesReused.increment();
+        }
+        return factory;
+    }
+
+    public static MetricSet metrics() {
+        return () -> Map.<String, Metric>of(
+                "parsers.created", (Gauge<Long>) parsersCreated::sum,
+                "parsers.reused", (Gauge<Long>) parsersReused::sum,
+                "transformer.factories.created", (Gauge<Long>) transformerFactoriesCreated::sum,
+                "transformer.factories.reused", (Gauge<Long>) transformerFactoriesReused::sum);
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.randomcoder.website.contentfilter;
+
+import java.util.Map;
+
+// ASCII case-insensitive lookup for a fixed set of names, comparing characters in place rather than lower-casing
+final class SymbolTable<T> {
+
+    private final String[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    SymbolTable(Map<String, T> entries) {
+        int capacity = 8;
+        while (capacity < entries.size() * 4) {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        for (var entry : entries.entrySet()) {
+            String key = entry.getKey();
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) > 0x7f) {
+                    throw new IllegalArgumentException("Non-ASCII symbol: " + key);
+                }
+            }
+            int slot = hash(key) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], key)) {
+                    throw new IllegalArgumentException("Duplicate symbol: " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = entry.getValue();
+        }
+    }
+
+    T get(CharSequence name) {
+        return get(name, 0, name.length());
+    }
+
+    // looks up the characters between start and end in place, such as the local part of a qualified name
+    @SuppressWarnings("unchecked")
+    T get(CharSequence name, int start, int end) {
+        int slot = hash(name, start, end) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, name, start, end)) {
+                return (T) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static char fold(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(CharSequence name) {
+        return hash(name, 0, name.length());
+    }
+
+    private static int hash(CharSequence name, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + fold(name.charAt(i));
+        }
+        return spread(h);
+    }
+
+    private static boolean matches(String key, CharSequence name) {
+        return matches(key, name, 0, name.length());
+    }
+
+    private static boolean matches(String key, CharSequence name, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (fold(key.charAt(i)) != fold(name.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
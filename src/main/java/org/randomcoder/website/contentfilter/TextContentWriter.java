@@ -0,0 +1,92 @@
+package org.randomcoder.website.contentfilter;
+
+import org.xml.sax.SAXException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+// same output as TextReader through text-to-xhtml.xsl: lines separated by <br/>, non-ASCII as character references,
+// and characters XML 1.0 doesn't allow dropped
+public class TextContentWriter implements ContentWriter {
+
+    private static final String START = "<div class=\"text-plain\">\n";
+    private static final String END = "</div>";
+    private static final String BREAK = "<br/>\n";
+
+    @Override
+    public void write(Reader content, Writer out) throws IOException, SAXException {
+        BufferedReader reader = new BufferedReader(content);
+
+        out.write(START);
+        String line = reader.readLine();
+        while (line != null) {
+            writeEscaped(line.trim(), out);
+            line = reader.readLine();
+            out.write(line == null ? "\n" : BREAK);
+        }
+        out.write(END);
+    }
+
+    private void writeEscaped(String text, Writer out) throws IOException, SAXException {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c < 0x7f && c != '<' && c != '>' && c != '&' || c == '\t') {
+                continue;
+            }
+
+            // flush the run of characters needing no escaping
+            out.write(text, start, i - start);
+            start = i + 1;
+
+            switch (c) {
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '&' -> out.write("&amp;");
+                default -> {
+                    if (!isXmlChar(c)) {
+                        continue;
+                    }
+                    if (Character.isHighSurrogate(c)) {
+                        if (i + 1 == length) {
+                            // the serializer silently drops a trailing high surrogate
+                            continue;
+                        }
+                        char low = text.charAt(i + 1);
+                        if (!Character.isLowSurrogate(low)) {
+                            throw new SAXException(String.format(
+                                    "Invalid UTF-16 surrogate detected: %x %x", (int) c, (int) low));
+                        }
+                        writeReference(Character.toCodePoint(c, low), out);
+                        start = ++i + 1;
+                    } else {
+                        writeReference(c, out);
+                    }
+                }
+            }
+        }
+        out.write(text, start, length - start);
+    }
+
+    // XML 1.0 Char production; surrogates pass here but are only written as pairs
+    private static boolean isXmlChar(char c) {
+        if (c < 0x20) {
+            return c == '\t' || c == '\n' || c == '\r';
+        }
+        if (Character.isLowSurrogate(c)) {
+            // a low surrogate on its own; pairs are consumed with their high surrogate
+            return false;
+        }
+        return c != 0xfffe && c != 0xffff;
+    }
+
+    private void writeReference(int codePoint, Writer out) throws IOException {
+        out.write("&#");
+        out.write(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+}
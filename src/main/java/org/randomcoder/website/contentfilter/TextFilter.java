@@ -16,6 +16,7 @@ public class TextFilter implements ContentFilter {
     private static final String XSL_RESOURCE = "text-to-xhtml.xsl";
 
     private final Templates templates;
+    private final ContentWriter contentWriter = new TextContentWriter();
 
     public TextFilter() throws TransformerConfigurationException {
         // cache templates for later use
@@ -38,6 +39,11 @@ public class TextFilter implements ContentFilter {
         return templates;
     }
 
+    @Override
+    public ContentWriter getContentWriter(URL baseUrl, String contentType) {
+        return contentWriter;
+    }
+
     @Override
     public String getPrefix(String contentType) {
         return null;
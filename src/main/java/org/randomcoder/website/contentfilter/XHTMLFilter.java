@@ -1,5 +1,8 @@
 package org.randomcoder.website.contentfilter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
@@ -7,8 +10,6 @@ import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
 import javax.xml.XMLConstants;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
@@ -20,6 +21,8 @@ import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URL;
 import java.util.Set;
 
@@ -34,10 +37,21 @@ public class XHTMLFilter implements ContentFilter {
     private static final String XSL_RESOURCE = "xhtml-to-xhtml.xsl";
     private static final String XSD_RESOURCE = "xhtml1-transitional.xsd";
     private static final String NS_RESOURCE = "namespace.xsd";
+    private static final int VALID_CONTENT_MEMO_SIZE = 1_000;
+
     private final Templates templates;
     private final Schema schema;
     private final Set<String> allowedClasses;
 
+    // validators aren't thread-safe, but can be reset and reused
+    private final ThreadLocal<Validator> validators;
+
+    // SHA-256 digests of documents which are known to be valid
+    private final Cache<String, Boolean> validContent = Caffeine
+            .newBuilder()
+            .maximumSize(VALID_CONTENT_MEMO_SIZE)
+            .build();
+
     public XHTMLFilter(Set<String> allowedClasses) throws TransformerConfigurationException, SAXException {
         this.allowedClasses = allowedClasses;
 
@@ -48,18 +62,12 @@ public class XHTMLFilter implements ContentFilter {
         Source xhtmlSource = new StreamSource(getClass().getResourceAsStream(XSD_RESOURCE));
         Source nsSource = new StreamSource(getClass().getResourceAsStream(NS_RESOURCE));
         schema = sFactory.newSchema(new Source[]{nsSource, xhtmlSource});
+        validators = ThreadLocal.withInitial(schema::newValidator);
     }
 
     @Override
     public XMLReader getXMLReader(URL baseUrl, String contentType) throws SAXException {
-        XMLReader xmlReader;
-        try {
-            SAXParserFactory spf = SAXParserFactory.newInstance();
-            spf.setNamespaceAware(true);
-            xmlReader = spf.newSAXParser().getXMLReader();
-        } catch (ParserConfigurationException e) {
-            throw new SAXException(e);
-        }
+        XMLReader xmlReader = SaxResources.namespaceAwareXMLReader();
 
         return new XHTMLReader(xmlReader, allowedClasses, baseUrl);
     }
@@ -69,6 +77,15 @@ public class XHTMLFilter implements ContentFilter {
         return templates;
     }
 
+    @Override
+    public ContentWriter getContentWriter(URL baseUrl, String contentType) {
+        return (content, out) -> {
+            XMLReader reader = getXMLReader(baseUrl, contentType);
+            reader.setContentHandler(new XHTMLSerializer(out));
+            reader.parse(new InputSource(content));
+        };
+    }
+
     @Override
     public String getPrefix(String contentType) {
         return PREFIX;
@@ -81,12 +98,23 @@ public class XHTMLFilter implements ContentFilter {
 
     @Override
     public void validate(String contentType, Reader content) throws InvalidContentException, InvalidContentTypeException, IOException {
-        Validator validator = schema.newValidator();
+        StringWriter buffer = new StringWriter();
+        content.transferTo(buffer);
+        String document = buffer.toString();
+
+        String digest = DigestUtils.sha256Hex(document);
+        if (validContent.getIfPresent(digest) != null) {
+            return;
+        }
+
+        Validator validator = validators.get();
+        validator.reset();
         XHTMLErrorHandler handler = new XHTMLErrorHandler();
         validator.setErrorHandler(handler);
 
         try {
-            validator.validate(new StreamSource(content));
+            validator.validate(new StreamSource(new StringReader(document)));
+            validContent.put(digest, Boolean.TRUE);
         } catch (SAXException e) {
             if (handler.getMessage() != null) {
                 // we caught it
@@ -9,13 +9,18 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.XMLFilterImpl;
 
+import javax.xml.transform.Result;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,75 +29,121 @@ public class XHTMLReader extends XMLFilterImpl {
     private static final Logger logger = LoggerFactory.getLogger(XHTMLReader.class);
 
     private static final Attributes NO_ATTRIBUTES = new AttributesImpl();
-    private static final String HTML = "html".toLowerCase(Locale.US);
 
-    private static final Set<String> ALLOWED_TAGS;
-    private static final Map<String, String> REPLACED_TAGS;
-    private static final Set<String> ALLOWED_ATTRIBUTES;
-    private static final Set<String> URL_ATTRIBUTES;
+    private static final String[] ALLOWED_TAGS = {
+            "a", "abbr", "acronym", "address", "bdo", "big", "blockquote", "body",
+            "br", "caption", "cite", "code", "colgroup", "dd", "del", "dfn",
+            "div", "dl", "dt", "em", "h1", "h2", "h3", "h4", "h5", "h6", "hr",
+            "html", "img", "ins", "kbd", "li", "ol", "p", "pre", "q", "samp",
+            "small", "span", "strong", "sub", "sup", "table", "tbody", "td",
+            "tfoot", "th", "thead", "tr", "tt", "ul", "var"};
+
+    private static final String[][] REPLACED_TAGS = {
+            {"b", "strong"}, {"i", "em"}, {"s", "del"}, {"strike", "del"}, {"u", "em"}};
+
+    private static final String[] ALLOWED_ATTRIBUTES = {
+            "*.dir", "*.lang", "*.title", "a.href", "a.charset", "a.hreflang",
+            "a.type", "blockquote.cite", "body.-", "colgroup.align",
+            "colgroup.char", "colgroup.charoff", "colgroup.span",
+            "colgroup.valign", "colgroup.width", "del.cite", "del.datetime",
+            "html.-", "img.alt", "img.src", "img.height", "img.longdesc",
+            "img.width", "ins.cite", "ins.datetime", "pre.width", "q.cite",
+            "table.border", "table.cellpadding", "table.cellspacing",
+            "table.frame", "table.rules", "table.summary", "table.width",
+            "tbody.align", "tbody.char", "tbody.charoff", "tbody.valign",
+            "td.abbr", "td.align", "td.axis", "td.char", "td.charoff",
+            "td.colspan", "td.headers", "td.rowspan", "td.scope", "td.valign",
+            "tfoot.align", "tfoot.char", "tfoot.charoff", "tfoot.valign",
+            "th.abbr", "th.align", "th.axis", "th.char", "th.charoff",
+            "th.colspan", "th.headers", "th.rowspan", "th.scope", "th.valign",
+            "thead.align", "thead.char", "thead.charoff", "thead.valign",
+            "tr.align", "tr.char", "tr.charoff", "tr.valign"};
+
+    private static final String[] URL_ATTRIBUTES = {
+            "*.href", "*.src", "*.cite", "*.xmlns", "body.background",
+            "form.action", "frame.longdesc", "head.profile", "img.ismap",
+            "img.longdesc", "img.usemap", "object.archive", "object.codebase",
+            "object.data", "object.usemap"};
+
+    private static final SymbolTable<ElementInfo> ELEMENTS;
+    private static final SymbolTable<AttributeInfo> ATTRIBUTES;
+    private static final ElementInfo HTML_ELEMENT;
+    private static final AttributeInfo CLASS_ATTRIBUTE;
     private static final Set<String> ALLOWED_PROTOCOLS;
 
-    static {
-        String[] tags = {
-                "a", "abbr", "acronym", "address", "bdo", "big", "blockquote", "body",
-                "br", "caption", "cite", "code", "colgroup", "dd", "del", "dfn",
-                "div", "dl", "dt", "em", "h1", "h2", "h3", "h4", "h5", "h6", "hr",
-                "html", "img", "ins", "kbd", "li", "ol", "p", "pre", "q", "samp",
-                "small", "span", "strong", "sub", "sup", "table", "tbody", "td",
-                "tfoot", "th", "thead", "tr", "tt", "ul", "var"};
-
-        Set<String> set = new HashSet<String>(tags.length);
-        for (String tag : tags) {
-            set.add(tag.toLowerCase(Locale.US));
+    // whitelist entry for an element name
+    private static final class ElementInfo {
+        final String name;
+        ElementInfo canonical = this;
+        boolean allowed;
+        boolean attributesDenied;
+        long allowedAttributes;
+        long urlAttributes;
+
+        ElementInfo(String name) {
+            this.name = name;
         }
-        ALLOWED_TAGS = Collections.unmodifiableSet(set);
     }
 
-    static {
-        String[][] tags = {{"b", "strong"}, {"i", "em"}, {"s", "del"}, {"strike", "del"}, {"u", "em"}};
-        HashMap<String, String> map = new HashMap<String, String>(tags.length);
-        for (String[] entry : tags)
-            map.put(entry[0].toLowerCase(Locale.US), entry[1].toLowerCase(Locale.US));
-        REPLACED_TAGS = Collections.unmodifiableMap(map);
+    // whitelist entry for an attribute name, which owns one bit of the per-element masks
+    private static final class AttributeInfo {
+        final String name;
+        final long bit;
+        boolean allowedEverywhere;
+        boolean urlEverywhere;
+
+        AttributeInfo(String name, int index) {
+            this.name = name;
+            this.bit = 1L << index;
+        }
     }
 
     static {
-        String[] atts = {
-                "*.dir", "*.lang", "*.title", "a.href", "a.charset", "a.hreflang",
-                "a.type", "blockquote.cite", "body.-", "colgroup.align",
-                "colgroup.char", "colgroup.charoff", "colgroup.span",
-                "colgroup.valign", "colgroup.width", "del.cite", "del.datetime",
-                "html.-", "img.alt", "img.src", "img.height", "img.longdesc",
-                "img.width", "ins.cite", "ins.datetime", "pre.width", "q.cite",
-                "table.border", "table.cellpadding", "table.cellspacing",
-                "table.frame", "table.rules", "table.summary", "table.width",
-                "tbody.align", "tbody.char", "tbody.charoff", "tbody.valign",
-                "td.abbr", "td.align", "td.axis", "td.char", "td.charoff",
-                "td.colspan", "td.headers", "td.rowspan", "td.scope", "td.valign",
-                "tfoot.align", "tfoot.char", "tfoot.charoff", "tfoot.valign",
-                "th.abbr", "th.align", "th.axis", "th.char", "th.charoff",
-                "th.colspan", "th.headers", "th.rowspan", "th.scope", "th.valign",
-                "thead.align", "thead.char", "thead.charoff", "thead.valign",
-                "tr.align", "tr.char", "tr.charoff", "tr.valign"};
-        Set<String> set = new HashSet<String>(atts.length);
-        for (String att : atts) {
-            set.add(att.toLowerCase(Locale.US));
+        Map<String, ElementInfo> elements = new HashMap<>();
+        Map<String, AttributeInfo> attributes = new HashMap<>();
+
+        for (String tag : ALLOWED_TAGS) {
+            elements.computeIfAbsent(tag, ElementInfo::new).allowed = true;
+        }
+        for (String[] entry : REPLACED_TAGS) {
+            elements.computeIfAbsent(entry[0], ElementInfo::new).canonical = elements.get(entry[1]);
+        }
+
+        CLASS_ATTRIBUTE = attribute(attributes, "class");
+        for (String att : ALLOWED_ATTRIBUTES) {
+            String[] parts = att.split("\\.");
+            if ("-".equals(parts[1])) {
+                elements.computeIfAbsent(parts[0], ElementInfo::new).attributesDenied = true;
+            } else if ("*".equals(parts[0])) {
+                attribute(attributes, parts[1]).allowedEverywhere = true;
+            } else {
+                elements.computeIfAbsent(parts[0], ElementInfo::new).allowedAttributes |= attribute(attributes, parts[1]).bit;
+            }
+        }
+        for (String att : URL_ATTRIBUTES) {
+            String[] parts = att.split("\\.");
+            if ("*".equals(parts[0])) {
+                attribute(attributes, parts[1]).urlEverywhere = true;
+            } else {
+                elements.computeIfAbsent(parts[0], ElementInfo::new).urlAttributes |= attribute(attributes, parts[1]).bit;
+            }
         }
-        ALLOWED_ATTRIBUTES = Collections.unmodifiableSet(set);
+
+        ELEMENTS = new SymbolTable<>(elements);
+        ATTRIBUTES = new SymbolTable<>(attributes);
+        HTML_ELEMENT = elements.get("html");
     }
 
-    static {
-        String[] atts = {
-                "*.href", "*.src", "*.cite", "*.xmlns", "body.background",
-                "form.action", "frame.longdesc", "head.profile", "img.ismap",
-                "img.longdesc", "img.usemap", "object.archive", "object.codebase",
-                "object.data", "object.usemap"};
-
-        Set<String> set = new HashSet<String>(atts.length);
-        for (String att : atts) {
-            set.add(att.toLowerCase(Locale.US));
+    private static AttributeInfo attribute(Map<String, AttributeInfo> attributes, String name) {
+        AttributeInfo info = attributes.get(name);
+        if (info == null) {
+            if (attributes.size() == Long.SIZE) {
+                throw new IllegalStateException("Too many whitelisted attributes");
+            }
+            info = new AttributeInfo(name, attributes.size());
+            attributes.put(name, info);
         }
-        URL_ATTRIBUTES = Collections.unmodifiableSet(set);
+        return info;
     }
 
     static {
@@ -109,33 +160,37 @@ public class XHTMLReader extends XMLFilterImpl {
     private int elementLevel = -1;
     private int filterLevel = -1;
 
+    // prefix mappings are only passed on along with the element declaring them, if it survives filtering
+    private final List<String[]> pendingPrefixes = new ArrayList<>();
+    private final Deque<List<String>> mappedPrefixes = new ArrayDeque<>();
+
     public XHTMLReader(XMLReader parent, Set<String> allowedClasses, URL baseUrl) {
         super(parent);
         this.allowedClasses = allowedClasses;
         this.baseUrl = baseUrl;
     }
 
-    private boolean isAllowedElement(String elName) {
-        return ALLOWED_TAGS.contains(elName.toLowerCase(Locale.US));
+    private boolean isAllowedElement(ElementInfo element) {
+        return element != null && element.allowed;
     }
 
-    private boolean isAllowedAttribute(String elName, String attName) {
-        if (ALLOWED_ATTRIBUTES.contains(elName + ".-")) {
+    private boolean isAllowedAttribute(ElementInfo element, AttributeInfo attribute) {
+        if (attribute == null || element.attributesDenied) {
             return false;
         }
-        if (ALLOWED_ATTRIBUTES.contains("*." + attName)) {
+        if (attribute.allowedEverywhere) {
             return true;
         }
 
-        return ALLOWED_ATTRIBUTES.contains(elName + "." + attName);
+        return (element.allowedAttributes & attribute.bit) != 0;
     }
 
-    private boolean isUrlAttribute(String elName, String attName) {
-        if (URL_ATTRIBUTES.contains("*." + attName)) {
+    private boolean isUrlAttribute(ElementInfo element, AttributeInfo attribute) {
+        if (attribute.urlEverywhere) {
             return true;
         }
 
-        return URL_ATTRIBUTES.contains(elName + "." + attName);
+        return (element.urlAttributes & attribute.bit) != 0;
     }
 
     private boolean validateUrl(String url) {
@@ -172,16 +227,17 @@ public class XHTMLReader extends XMLFilterImpl {
         }
     }
 
-    private String getCanonicalElement(String localName) {
-        String canon = REPLACED_TAGS.get(localName);
-        if (canon != null) {
-            return canon;
-        }
-        return localName.toLowerCase(Locale.US);
+    private ElementInfo getCanonicalElement(String localName, String qName) {
+        ElementInfo element = lookup(ELEMENTS, localName, qName);
+        return element == null ? null : element.canonical;
     }
 
-    private String getCanonicalAttribute(String localName) {
-        return localName.toLowerCase(Locale.US);
+    // parsers without namespace processing only report qualified names, so their local part is looked up in place
+    private static <T> T lookup(SymbolTable<T> table, String localName, String qName) {
+        if (!localName.isEmpty() || qName == null) {
+            return table.get(localName);
+        }
+        return table.get(qName, qName.indexOf(':') + 1, qName.length());
     }
 
     private void addClassAttribute(AttributesImpl attributes, String value) {
@@ -207,6 +263,8 @@ public class XHTMLReader extends XMLFilterImpl {
         super.startDocument();
         elementLevel = -1;
         filterLevel = -1;
+        pendingPrefixes.clear();
+        mappedPrefixes.clear();
     }
 
     @Override
@@ -221,13 +279,13 @@ public class XHTMLReader extends XMLFilterImpl {
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
-        String tagName = getCanonicalElement(localName);
+        ElementInfo element = getCanonicalElement(localName, qName);
 
         elementLevel++;
 
         if (elementLevel == 0) {
             // if 'html' is not the root element, substitute our own
-            if (!HTML.equals(tagName)) {
+            if (element != HTML_ELEMENT) {
                 // substitute our own wrapper
                 super.startElement("", "html", "html", NO_ATTRIBUTES);
                 super.startElement("", "body", "body", NO_ATTRIBUTES);
@@ -237,11 +295,13 @@ public class XHTMLReader extends XMLFilterImpl {
 
         // if filtering, skip this
         if (filterLevel >= 0) {
+            pendingPrefixes.clear();
             return;
         }
 
         // check to see if element is allowed
-        if (!isAllowedElement(tagName)) {
+        if (!isAllowedElement(element)) {
+            pendingPrefixes.clear();
             filterLevel = elementLevel;
             return;
         }
@@ -249,12 +309,18 @@ public class XHTMLReader extends XMLFilterImpl {
         // filter attributes
         AttributesImpl filteredAtts = new AttributesImpl();
         for (int i = 0; i < atts.getLength(); i++) {
-            String attName = getCanonicalAttribute(atts.getLocalName(i));
+            String attQName = atts.getQName(i);
+            if (attQName != null && attQName.startsWith("xmlns:")) {
+                // namespace declarations, when the parser passes them on; never whitelisted attributes
+                continue;
+            }
+            AttributeInfo attribute = lookup(ATTRIBUTES, atts.getLocalName(i), attQName);
 
-            if ("class".equals(attName)) {
+            if (attribute == CLASS_ATTRIBUTE) {
                 addClassAttribute(filteredAtts, atts.getValue(i));
-            } else if (isAllowedAttribute(tagName, attName)) {
-                if (isUrlAttribute(tagName, attName)) {
+            } else if (isAllowedAttribute(element, attribute)) {
+                String attName = attribute.name;
+                if (isUrlAttribute(element, attribute)) {
                     // filter urls
                     String url = atts.getValue(i);
 
@@ -273,14 +339,23 @@ public class XHTMLReader extends XMLFilterImpl {
             }
         }
 
-        super.startElement("", tagName, tagName, filteredAtts);
+        List<String> prefixes = List.of();
+        if (!pendingPrefixes.isEmpty()) {
+            prefixes = new ArrayList<>(pendingPrefixes.size());
+            for (String[] mapping : pendingPrefixes) {
+                super.startPrefixMapping(mapping[0], mapping[1]);
+                prefixes.add(mapping[0]);
+            }
+            pendingPrefixes.clear();
+        }
+        mappedPrefixes.push(prefixes);
+
+        super.startElement("", element.name, element.name, filteredAtts);
     }
 
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
         try {
-            String tagName = getCanonicalElement(localName);
-
             // check for filtered elements
             if (filterLevel >= 0) {
                 if (filterLevel == elementLevel) {
@@ -289,7 +364,11 @@ public class XHTMLReader extends XMLFilterImpl {
                 return;
             }
 
+            String tagName = getCanonicalElement(localName, qName).name;
             super.endElement("", tagName, tagName);
+            for (String prefix : mappedPrefixes.pop()) {
+                super.endPrefixMapping(prefix);
+            }
         } finally {
             elementLevel--;
         }
@@ -331,6 +410,9 @@ public class XHTMLReader extends XMLFilterImpl {
             throws SAXException {
         if (filterLevel >= 0)
             return;
+        // these would switch output escaping off in the serializer
+        if (Result.PI_DISABLE_OUTPUT_ESCAPING.equals(target) || Result.PI_ENABLE_OUTPUT_ESCAPING.equals(target))
+            return;
         super.processingInstruction(target, data);
     }
 
@@ -368,15 +450,12 @@ public class XHTMLReader extends XMLFilterImpl {
         if ("".equals(prefix)) {
             return; // don't map default prefix
         }
-        super.startPrefixMapping(prefix, uri);
+        pendingPrefixes.add(new String[]{prefix, uri});
     }
 
     @Override
     public void endPrefixMapping(String prefix) throws SAXException {
-        if ("".equals(prefix)) {
-            return; // don't map default prefix
-        }
-        super.endPrefixMapping(prefix);
+        // ended along with the element which declared it
     }
 
 }
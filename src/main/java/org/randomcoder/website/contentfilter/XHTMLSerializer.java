@@ -0,0 +1,342 @@
+package org.randomcoder.website.contentfilter;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+// same output as XHTMLReader events through xhtml-to-xhtml.xsl, including the JDK serializer's indent="yes" quirks
+class XHTMLSerializer extends DefaultHandler {
+
+    private static final String WRAPPER = "div";
+    private static final String WRAPPER_CLASS = "application-xhtml-xml";
+    private static final String BODY = "body";
+    private static final int INDENT = 4;
+
+    private final Writer out;
+    private final StringBuilder text = new StringBuilder();
+
+    // pending namespace declarations for the next element, then those in scope
+    private final List<Namespace> pendingNamespaces = new ArrayList<>();
+    private final List<Namespace> namespaces = new ArrayList<>();
+
+    private int[] childNodeNumStack = new int[16];
+    private int childNodeNum;
+
+    // nesting of source elements outside / inside the body being copied
+    private int sourceDepth;
+    private int bodyDepth = -1;
+
+    // nesting of output elements
+    private int depth;
+    private boolean startTagOpen;
+    private boolean startNewLine;
+    private boolean prevText;
+    private char highSurrogate;
+
+    private record Namespace(String prefix, String uri, int depth) {
+    }
+
+    XHTMLSerializer(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        if (bodyDepth >= 0) {
+            pendingNamespaces.add(new Namespace(prefix, uri, 0));
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+        sourceDepth++;
+        if (bodyDepth >= 0) {
+            startOutputElement(qName, atts);
+        } else if (sourceDepth == 2 && BODY.equals(qName)) {
+            bodyDepth = sourceDepth;
+            startOutputElement(WRAPPER, null);
+        }
+        pendingNamespaces.clear();
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (bodyDepth >= 0) {
+            endOutputElement(bodyDepth == sourceDepth ? WRAPPER : qName);
+            if (bodyDepth == sourceDepth) {
+                bodyDepth = -1;
+            }
+        }
+        sourceDepth--;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (length == 0) {
+            return;
+        }
+        closeStartTag(">");
+        text.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        characters(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+        if (bodyDepth < 0) {
+            return;
+        }
+        try {
+            childNodeNum++;
+            flushText();
+            closeStartTag(">");
+            if (depth > 0) {
+                indent(depth);
+            }
+            out.write("<?");
+            out.write(target);
+            if (data.length() > 0 && !Character.isSpaceChar(data.charAt(0))) {
+                out.write(' ');
+            }
+            int end = data.indexOf("?>");
+            if (end >= 0) {
+                out.write(data, 0, end);
+                out.write("? >");
+                out.write(data, end + 2, data.length() - end - 2);
+            } else {
+                out.write(data);
+            }
+            out.write("?>");
+            startNewLine = true;
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        try {
+            flushText();
+            closeStartTag(">");
+            if (!prevText) {
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private void startOutputElement(String name, Attributes atts) throws SAXException {
+        try {
+            childNodeNum++;
+            flushText();
+            closeStartTag(">");
+            if (depth > 0 && startNewLine) {
+                indent(depth);
+            }
+            startNewLine = true;
+            out.write('<');
+            out.write(name);
+
+            if (childNodeNumStack.length == depth) {
+                int[] stack = new int[depth * 2];
+                System.arraycopy(childNodeNumStack, 0, stack, 0, depth);
+                childNodeNumStack = stack;
+            }
+            childNodeNumStack[depth] = childNodeNum;
+            childNodeNum = 0;
+            depth++;
+
+            for (Namespace ns : pendingNamespaces) {
+                if (!isDeclared(ns)) {
+                    namespaces.add(new Namespace(ns.prefix(), ns.uri(), depth));
+                    writeAttribute("xmlns:" + ns.prefix(), ns.uri());
+                }
+            }
+            if (atts == null) {
+                writeAttribute("class", WRAPPER_CLASS);
+            } else {
+                for (int i = 0; i < atts.getLength(); i++) {
+                    writeAttribute(atts.getQName(i), atts.getValue(i));
+                }
+            }
+
+            startTagOpen = true;
+            prevText = false;
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private void endOutputElement(String name) throws SAXException {
+        try {
+            flushText();
+            if (startTagOpen) {
+                closeStartTag("/>");
+            } else {
+                if (depth > 0 && (childNodeNum > 1 || !prevText)) {
+                    indent(depth - 1);
+                }
+                out.write("</");
+                out.write(name);
+                out.write('>');
+            }
+
+            while (!namespaces.isEmpty() && namespaces.get(namespaces.size() - 1).depth() == depth) {
+                namespaces.remove(namespaces.size() - 1);
+            }
+            depth--;
+            childNodeNum = childNodeNumStack[depth];
+            prevText = false;
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private boolean isDeclared(Namespace pending) {
+        for (int i = namespaces.size() - 1; i >= 0; i--) {
+            Namespace ns = namespaces.get(i);
+            if (ns.prefix().equals(pending.prefix())) {
+                return ns.uri().equals(pending.uri());
+            }
+        }
+        return false;
+    }
+
+    private void closeStartTag(String close) throws SAXException {
+        if (startTagOpen) {
+            try {
+                out.write(close);
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+            startTagOpen = false;
+        }
+    }
+
+    private void indent(int level) throws IOException {
+        if (startNewLine) {
+            out.write('\n');
+        }
+        for (int i = level * INDENT; i > 0; i--) {
+            out.write(' ');
+        }
+    }
+
+    private void flushText() throws IOException, SAXException {
+        if (text.length() == 0) {
+            return;
+        }
+        childNodeNum++;
+        int start = 0;
+        if (depth > 0 && childNodeNum > 1) {
+            indent(depth);
+            startNewLine = true;
+            // indented text loses its leading newlines
+            while (start < text.length() && text.charAt(start) == '\n') {
+                start++;
+            }
+        }
+        if (start < text.length()) {
+            writeText(start);
+            prevText = true;
+        }
+        text.setLength(0);
+    }
+
+    private void writeText(int start) throws IOException, SAXException {
+        int length = text.length();
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '&' -> out.write("&amp;");
+                case '\n', '\t', '"' -> out.write(c);
+                default -> {
+                    if (c >= 0x20 && c < 0x7f) {
+                        out.write(c);
+                    } else {
+                        i = writeReference(c, i, text, depth > 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeAttribute(String name, String value) throws IOException, SAXException {
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '&' -> out.write("&amp;");
+                case '"' -> out.write("&quot;");
+                default -> {
+                    // DEL is left alone in attributes, unlike in text
+                    if (c >= 0x20 && c <= 0x7f) {
+                        out.write(c);
+                    } else {
+                        i = writeReference(c, i, value, true);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    // character reference for a surrogate pair or lone character; returns the index of the last character consumed
+    private int writeReference(char c, int i, CharSequence chars, boolean escape) throws IOException, SAXException {
+        if (highSurrogate != 0) {
+            // a high surrogate left over from the end of an earlier run pairs with the next escaped character
+            if (!Character.isLowSurrogate(c)) {
+                throw invalidSurrogate(highSurrogate, c);
+            }
+            writeReference(Character.toCodePoint(highSurrogate, c));
+            highSurrogate = 0;
+            return i;
+        }
+        if (Character.isHighSurrogate(c)) {
+            if (i + 1 >= chars.length()) {
+                highSurrogate = c;
+                return i;
+            }
+            char low = chars.charAt(i + 1);
+            if (!Character.isLowSurrogate(low)) {
+                throw invalidSurrogate(c, low);
+            }
+            writeReference(Character.toCodePoint(c, low));
+            return i + 1;
+        }
+        boolean control = (c < 0x20 && c != '\t' && c != '\n' && c != '\r' && c != 0) || (c >= 0x7f && c <= 0x9f);
+        if (control || escape) {
+            writeReference(c);
+        } else {
+            out.write(c);
+        }
+        return i;
+    }
+
+    private void writeReference(int codePoint) throws IOException {
+        out.write("&#");
+        out.write(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+    private SAXException invalidSurrogate(char high, char next) {
+        return new SAXException(String.format("Invalid UTF-16 surrogate detected: %x %x", (int) high, (int) next));
+    }
+
+}
@@ -4,18 +4,22 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.ws.rs.core.UriInfo;
 import org.randomcoder.website.Config;
-import org.randomcoder.website.bo.TagBusiness;
-import org.randomcoder.website.contentfilter.ContentFilter;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.AvatarCache;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
 import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
 import org.randomcoder.website.model.*;
 
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 abstract public class AbstractArticleListController<T> {
 
@@ -26,10 +30,13 @@ abstract public class AbstractArticleListController<T> {
     private static final String PARAM_PAGE_SIZE = "page.size";
 
     @Inject
-    TagBusiness tagBusiness;
+    ContentBusiness contentBusiness;
 
     @Inject
-    ContentFilter contentFilter;
+    AvatarCache avatarCache;
+
+    @Inject
+    SidebarController sidebarController;
 
     @Inject
     @Named(Config.ARTICLE_PAGESIZE_MAX)
@@ -37,12 +44,16 @@ abstract public class AbstractArticleListController<T> {
 
     abstract protected T populateContext(UriInfo uriInfo);
 
-    abstract protected List<Article> listArticlesBetweenDates(T context, Date startDate, Date endDate);
+    // days with articles, as a mask with bit 0 for the 1st
+    abstract protected int findDaysWithArticles(T context, YearMonth month);
 
-    abstract protected Page<Article> listArticlesBeforeDate(T context, Date cutoffDate, long offset, long length);
+    abstract protected Page<Article> listArticlesBeforeDate(
+            T context, Date cutoffDate, ArticleCursor after, long offset, long length);
 
     abstract protected String getSubTitle(T context);
 
+    abstract protected Tag getFeedTag(T context);
+
     public Map<String, ? extends Object> buildModel(UriInfo uriInfo) {
         var context = populateContext(uriInfo);
 
@@ -53,6 +64,9 @@ abstract public class AbstractArticleListController<T> {
         long offset = oal.offset();
         long length = oal.length();
 
+        // next page links carry a cursor, so following them doesn't need to skip past earlier pages
+        ArticleCursor after = ArticleCursor.parse(uriInfo.getQueryParameters().getFirst(PageUtils.PARAM_PAGE_AFTER));
+
         // get current month
         Calendar currentMonth = Calendar.getInstance();
         currentMonth.setTime(new Date());
@@ -82,17 +96,9 @@ abstract public class AbstractArticleListController<T> {
         nextMonth.set(Calendar.SECOND, 0);
         nextMonth.set(Calendar.MILLISECOND, 0);
 
-        // mark calendar with days containing articles
-        boolean[] days = new boolean[31];
-        for (int i = 0; i < 31; i++) {
-            days[i] = false;
-        }
-
-        Calendar cal = Calendar.getInstance();
-        for (Article article : listArticlesBetweenDates(context, currentMonth.getTime(), nextMonth.getTime())) {
-            cal.setTime(article.getCreationDate());
-            days[cal.get(Calendar.DAY_OF_MONTH) - 1] = true;
-        }
+        // mark calendar with days containing articles; only needed if the calendar isn't cached
+        YearMonth calendarMonth = YearMonth.of(currentMonth.get(Calendar.YEAR), currentMonth.get(Calendar.MONTH) + 1);
+        Supplier<boolean[]> days = () -> toDays(findDaysWithArticles(context, calendarMonth));
 
         Calendar cutoff = Calendar.getInstance();
         cutoff.setTime(currentMonth.getTime());
@@ -110,33 +116,43 @@ abstract public class AbstractArticleListController<T> {
         cutoff.set(Calendar.MILLISECOND, 0);
 
         // load articles
-        Page<Article> articles = listArticlesBeforeDate(context, cutoff.getTime(), offset, length);
+        Page<Article> articles = listArticlesBeforeDate(context, cutoff.getTime(), after, offset, length);
 
         // wrap article list
         List<ArticleDecorator> wrappedArticles = new ArrayList<>(articles.getContent().size());
         for (Article article : articles.getContent()) {
-            wrappedArticles.add(new ArticleDecorator(article, contentFilter));
+            wrappedArticles.add(new ArticleDecorator(article, contentBusiness, avatarCache));
         }
-
-        // get tag cloud
-        List<TagCloudEntry> tagCloud = tagBusiness.getTagCloud();
+        contentBusiness.prerenderArticles(articles.getContent());
 
         // populate model
         model.put("articles", wrappedArticles);
         model.put("pager", articles);
         model.put("pagerInfo", new PagerInfo<>(articles, uriInfo));
-        model.put("days", days);
-        model.put("tagCloud", tagCloud);
-        model.put("calendar", new CalendarInfo(uriInfo, days));
+        model.put("calendarHtml", sidebarController.calendar(getFeedTag(context), calendarMonth, days));
+        model.put("tagCloudHtml", sidebarController.tagCloud());
 
         String subTitle = getSubTitle(context);
         if (subTitle != null) {
             model.put("pageSubTitle", subTitle);
         }
 
+        Tag feedTag = getFeedTag(context);
+        if (feedTag != null) {
+            model.put("feedTag", feedTag);
+        }
+
         return model;
     }
 
+    static boolean[] toDays(int mask) {
+        boolean[] result = new boolean[31];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (mask & (1 << i)) != 0;
+        }
+        return result;
+    }
+
     private static int getIntQueryParam(UriInfo uriInfo, String param, int defaultValue) {
         return (int) getLongQueryParam(uriInfo, param, defaultValue);
     }
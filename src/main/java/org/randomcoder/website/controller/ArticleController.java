@@ -2,8 +2,9 @@ package org.randomcoder.website.controller;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.AvatarCache;
 import org.randomcoder.website.command.CommentCommand;
-import org.randomcoder.website.contentfilter.ContentFilter;
 import org.randomcoder.website.data.Article;
 import org.randomcoder.website.data.ContentType;
 import org.randomcoder.website.model.ArticleDecorator;
@@ -17,7 +18,10 @@ import java.util.Map;
 public class ArticleController {
 
     @Inject
-    ContentFilter contentFilter;
+    ContentBusiness contentBusiness;
+
+    @Inject
+    AvatarCache avatarCache;
 
     public Map<String, Object> buildModel(CommentCommand command, Article article) {
         return buildModel(command, article, null);
@@ -30,7 +34,8 @@ public class ArticleController {
 
         var model = new HashMap<String, Object>();
         var wrappedArticles = new ArrayList<ArticleDecorator>(1);
-        wrappedArticles.add(new ArticleDecorator(article, contentFilter));
+        wrappedArticles.add(new ArticleDecorator(article, contentBusiness, avatarCache));
+        contentBusiness.prerenderArticles(List.of(article));
         model.put("articles", wrappedArticles);
         model.put("pageSubTitle", article.getTitle());
         model.put("commentsEnabled", article.isCommentsEnabled());
@@ -10,12 +10,14 @@ import org.randomcoder.website.bo.TagBusiness;
 import org.randomcoder.website.data.Page;
 import org.randomcoder.website.data.Pagination;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.YearMonth;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
 @Singleton
@@ -38,13 +40,13 @@ public class ArticleTagListController extends AbstractArticleListController<Tag>
     }
 
     @Override
-    protected Page<Article> listArticlesBeforeDate(Tag tag, Date cutoffDate, long offset, long length) {
-        return articleBusiness.listArticlesByTagBeforeDate(tag, cutoffDate, offset, length);
+    protected Page<Article> listArticlesBeforeDate(Tag tag, Date cutoffDate, ArticleCursor after, long offset, long length) {
+        return articleBusiness.listArticlesByTagBeforeDate(ArticleProjection.SUMMARY, tag, cutoffDate, after, offset, length);
     }
 
     @Override
-    protected List<Article> listArticlesBetweenDates(Tag tag, Date startDate, Date endDate) {
-        return articleBusiness.listArticlesByTagBetweenDates(tag, startDate, endDate);
+    protected int findDaysWithArticles(Tag tag, YearMonth month) {
+        return articleBusiness.findDaysWithArticlesByTag(tag, month);
     }
 
     @Override
@@ -52,5 +54,10 @@ public class ArticleTagListController extends AbstractArticleListController<Tag>
         return tag == null ? null : tag.getDisplayName();
     }
 
+    @Override
+    protected Tag getFeedTag(Tag tag) {
+        return tag;
+    }
+
 }
 
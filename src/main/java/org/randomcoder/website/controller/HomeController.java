@@ -4,10 +4,13 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.core.UriInfo;
 import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
 import org.randomcoder.website.bo.ArticleBusiness;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 
-import java.util.List;
+import java.time.YearMonth;
 import java.util.Date;
 
 @Singleton
@@ -22,13 +25,13 @@ public class HomeController extends AbstractArticleListController<Void> {
     }
 
     @Override
-    protected Page<Article> listArticlesBeforeDate(Void context, Date cutoffDate, long offset, long length) {
-        return articleBusiness.listArticlesBeforeDate(cutoffDate, offset, length);
+    protected Page<Article> listArticlesBeforeDate(Void context, Date cutoffDate, ArticleCursor after, long offset, long length) {
+        return articleBusiness.listArticlesBeforeDate(ArticleProjection.SUMMARY, cutoffDate, after, offset, length);
     }
 
     @Override
-    protected List<Article> listArticlesBetweenDates(Void context, Date startDate, Date endDate) {
-        return articleBusiness.listArticlesBetweenDates(startDate, endDate);
+    protected int findDaysWithArticles(Void context, YearMonth month) {
+        return articleBusiness.findDaysWithArticles(month);
     }
 
     @Override
@@ -36,4 +39,9 @@ public class HomeController extends AbstractArticleListController<Void> {
         return null;
     }
 
+    @Override
+    protected Tag getFeedTag(Void context) {
+        return null;
+    }
+
 }
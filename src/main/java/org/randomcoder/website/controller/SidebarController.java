@@ -0,0 +1,55 @@
+package org.randomcoder.website.controller;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.randomcoder.website.bo.TagBusiness;
+import org.randomcoder.website.cache.FragmentCache;
+import org.randomcoder.website.cache.FragmentKey;
+import org.randomcoder.website.data.Tag;
+import org.randomcoder.website.model.CalendarInfo;
+import org.randomcoder.website.thymeleaf.ThymeleafEntity;
+import org.randomcoder.website.thymeleaf.ThymeleafRenderer;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.function.Supplier;
+
+@Singleton
+public class SidebarController {
+
+    private static final FragmentKey TAG_CLOUD_KEY = new FragmentKey(FragmentKey.TAG_CLOUD, null, null, null);
+
+    @Inject
+    TagBusiness tagBusiness;
+
+    @Inject
+    FragmentCache fragmentCache;
+
+    @Inject
+    ThymeleafRenderer renderer;
+
+    public String calendar(Tag tag, YearMonth month, Supplier<boolean[]> daysWithContent) {
+        // the markup depends only on the tag, the month shown and the day highlighted as today
+        var key = new FragmentKey(FragmentKey.CALENDAR, tag == null ? null : tag.getName(), month, LocalDate.now());
+        return fragmentCache.fragments().get(key, k -> renderer.renderString(
+                new ThymeleafEntity(k.fragment())
+                        .withVariable("calendar", new CalendarInfo(
+                                calendarPath(k.tag()), k.month(), k.date(), daysWithContent.get())), null));
+    }
+
+    public String tagCloud() {
+        return fragmentCache.fragments().get(TAG_CLOUD_KEY, k -> renderer.renderString(
+                new ThymeleafEntity(k.fragment())
+                        .withVariable("tagCloud", tagBusiness.getTagCloud()), null));
+    }
+
+    static String calendarPath(String tagName) {
+        if (tagName == null) {
+            return "/";
+        }
+        return "/tags/" + URLEncoder.encode(tagName, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+}
@@ -1,9 +1,12 @@
 package org.randomcoder.website.dao;
 
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Page;
 import org.randomcoder.website.data.Tag;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -17,14 +20,41 @@ public interface ArticleDao {
 
     Article findByPermalink(String permalink);
 
-    Page<Article> listByDateDesc(long offset, long length);
+    Long findIdByPermalink(String permalink);
 
-    Page<Article> listBeforeDate(Date endDate, long offset, long length);
+    // in no particular order, leaving out articles which don't exist
+    List<Article> listByIds(ArticleProjection projection, Collection<Long> articleIds);
 
-    Page<Article> listByTagBeforeDate(Tag tag, Date endDate, long offset, long length);
+    Page<Article> listByDateDesc(ArticleProjection projection, long offset, long length);
 
-    List<Article> listBetweenDates(Date startDate, Date endDate);
+    Page<Article> listBeforeDate(ArticleProjection projection, Date endDate, long offset, long length);
 
-    List<Article> listByTagBetweenDates(Tag tag, Date startDate, Date endDate);
+    Page<Article> listByTagBeforeDate(ArticleProjection projection, Tag tag, Date endDate, long offset, long length);
+
+    long countBeforeDate(Date endDate);
+
+    long countByTagBeforeDate(Tag tag, Date endDate);
+
+    // rows are found from the cursor; offset only numbers the page, and the total comes from the count methods above
+    Page<Article> listBeforeCursor(
+            ArticleProjection projection, Date endDate, ArticleCursor after, long offset, long length, long totalSize);
+
+    Page<Article> listByTagBeforeCursor(
+            ArticleProjection projection, Tag tag, Date endDate, ArticleCursor after, long offset, long length,
+            long totalSize);
+
+    List<Article> listBetweenDates(ArticleProjection projection, Date startDate, Date endDate);
+
+    List<Article> listByTagBetweenDates(ArticleProjection projection, Tag tag, Date startDate, Date endDate);
+
+    Date findCreationDateById(long articleId);
+
+    List<Date> listCreationDatesBetweenDates(Date startDate, Date endDate);
+
+    List<Date> listCreationDatesByTagBetweenDates(Tag tag, Date startDate, Date endDate);
+
+    List<Article> listRenderStale(int renderVersion, int limit);
+
+    boolean saveRendered(Article article);
 
 }
@@ -1,11 +1,18 @@
 package org.randomcoder.website.dao;
 
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import org.randomcoder.website.Config;
 import org.randomcoder.website.data.ModerationStatus;
 import org.randomcoder.website.data.ContentType;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.Page;
 import org.randomcoder.website.data.Tag;
@@ -23,6 +30,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -40,20 +48,49 @@ public class ArticleDaoImpl implements ArticleDao {
     @Inject
     MetricRegistry metrics;
 
+    @Inject
+    @Named(Config.ARTICLE_PAGING_COUNT_QUERY)
+    boolean separateCountQuery = false;
+
+    @Inject
+    @Named(Config.ARTICLE_LOAD_STRATEGY)
+    ArticleLoadStrategy loadStrategy = ArticleLoadStrategy.AGGREGATE;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private static final String INSERT = """
         INSERT INTO articles (
             content_type, create_user_id, create_date, modify_user_id, modify_date,
-            title, permalink, "content", summary, comments_enabled)
-        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            title, permalink, "content", summary, comments_enabled,
+            content_rendered, summary_rendered, render_version)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         RETURNING article_id""";
 
     private static final String UPDATE = """
         UPDATE articles SET
             content_type = ?, create_user_id = ?, create_date = ?, modify_user_id = ?, modify_date = ?,
-            title = ?, permalink = ?, "content" = ?, summary = ?, comments_enabled = ?
+            title = ?, permalink = ?, "content" = ?, summary = ?, comments_enabled = ?,
+            content_rendered = ?, summary_rendered = ?, render_version = ?
         WHERE article_id = ?""";
 
-    private static final String SELECT_ALL = """
+    private static final String UPDATE_RENDERED = """
+        UPDATE articles SET
+            content_rendered = ?, summary_rendered = ?, render_version = ?
+        WHERE article_id = ? AND modify_date IS NOT DISTINCT FROM ?""";
+
+    private static final String LIST_RENDER_STALE = """
+            SELECT
+                a.article_id article_id,
+                a.content_type content_type,
+                a.modify_date modify_date,
+                a.content "content",
+                a.summary summary
+            FROM articles a
+            WHERE a.render_version IS NULL OR a.render_version <> ?
+            ORDER BY a.article_id
+            LIMIT ?""";
+
+    private static final String SELECT_COLUMNS = """
             SELECT
                 a.article_id article_id,
                 a.content_type content_type,
@@ -69,13 +106,68 @@ public class ArticleDaoImpl implements ArticleDao {
                 a.modify_date modify_date,
                 a.title title,
                 a.permalink permalink,
-                a.content "content",
                 a.summary summary,
-                a.comments_enabled comments_enabled
+                a.comments_enabled comments_enabled,
+                a.summary_rendered summary_rendered,
+                a.render_version render_version""";
+
+    private static final String CONTENT_COLUMNS = """
+                a.content "content",
+                a.content_rendered content_rendered""";
+
+    // lists show the summary in place of the body where there is one
+    private static final String SUMMARY_CONTENT_COLUMNS = """
+                CASE WHEN a.summary IS NULL THEN a.content END "content",
+                CASE WHEN a.summary IS NULL THEN a.content_rendered END content_rendered""";
+
+    private static final String COMMENT_COUNT = """
+                (SELECT count(*) FROM comments c WHERE c.article_id = a.article_id AND c.visible) comment_count""";
+
+    private static final String FROM_ARTICLES = """
             FROM articles a
             LEFT OUTER JOIN users cu ON a.create_user_id = cu.user_id
             LEFT OUTER JOIN users mu ON a.modify_user_id = mu.user_id""";
 
+    // tags and comments as JSON arrays, for loading them along with their articles
+    private static final String TAGS_AGGREGATE = """
+                (SELECT json_agg(json_build_object(
+                        'tag_id', t.tag_id, 'name', t.name, 'display_name', t.display_name)
+                        ORDER BY t.display_name)
+                    FROM tags t
+                    JOIN article_tag_link tl ON tl.tag_id = t.tag_id
+                    WHERE tl.article_id = a.article_id) tags_json""";
+
+    // dates as microseconds since the epoch, which survive the trip through JSON intact
+    private static final String COMMENTS_AGGREGATE = """
+                (SELECT json_agg(json_build_object(
+                        'comment_id', c.comment_id,
+                        'content_type', c.content_type,
+                        'create_user_id', c.create_user_id,
+                        'create_username', cu.username,
+                        'create_email', cu.email,
+                        'create_website', cu.website,
+                        'create_date', round(extract(epoch FROM c.create_date) * 1000000)::bigint,
+                        'anonymous_user_name', c.anonymous_user_name,
+                        'anonymous_email_address', c.anonymous_email_address,
+                        'anonymous_website', c.anonymous_website,
+                        'title', c.title,
+                        'content', c.content,
+                        'visible', c.visible,
+                        'moderation_status', c.moderation_status,
+                        'ip_address', c.ip_address,
+                        'referrer', c.referrer,
+                        'user_agent', c.user_agent,
+                        'content_rendered', c.content_rendered,
+                        'render_version', c.render_version)
+                        ORDER BY c.comment_id)
+                    FROM comments c
+                    LEFT JOIN users cu ON cu.user_id = c.create_user_id
+                    WHERE c.article_id = a.article_id) comments_json""";
+
+    // the window is computed before OFFSET / LIMIT apply, so every row carries the number of rows matched
+    private static final String TOTAL_COUNT = """
+                count(*) OVER () total_count""";
+
     private static final String SELECT_TAGS_BY_ARTICLE_IDS = """
             SELECT
                 atl.article_id article_id, t.tag_id tag_id, t.name "name", t.display_name display_name
@@ -86,44 +178,77 @@ public class ArticleDaoImpl implements ArticleDao {
 
     private static final String DELETE_BY_ID = "DELETE FROM articles WHERE article_id = ?";
 
-    private static final String FIND_BY_ID = SELECT_ALL + " WHERE a.article_id = ?";
-    private static final String FIND_BY_PERMALINK = SELECT_ALL + " WHERE a.permalink = ?";
+    // article queries follow the select list from articleQuery(), which includes the joins for article authors
+    private static final String FIND_BY_ID = "WHERE a.article_id = ?";
+    private static final String FIND_BY_PERMALINK = "WHERE a.permalink = ?";
+    private static final String LIST_BY_IDS = "WHERE a.article_id = ANY (?)";
+
+    private static final String FIND_ID_BY_PERMALINK =
+            "SELECT a.article_id article_id FROM articles a WHERE a.permalink = ?";
 
     private static final String COUNT_BEFORE_DATE =
             "SELECT count(1) FROM articles WHERE create_date < ?";
 
-    private static final String LIST_PAGED = SELECT_ALL + " " + """
-            ORDER BY a.create_date DESC
+    // article id breaks ties between articles created together, so pages can be continued from a cursor
+    private static final String LIST_PAGED = """
+            ORDER BY a.create_date DESC, a.article_id DESC
             OFFSET ? LIMIT ?""";
 
     private static final String COUNT_ALL = "SELECT count(1) FROM articles";
 
-    private static final String LIST_BEFORE_DATE_PAGED = SELECT_ALL + " " + """
+    private static final String LIST_BEFORE_DATE_PAGED = """
             WHERE a.create_date < ?
-            ORDER BY a.create_date DESC
+            ORDER BY a.create_date DESC, a.article_id DESC
             OFFSET ? LIMIT ?""";
 
+    private static final String LIST_BEFORE_CURSOR = """
+            WHERE a.create_date < ? AND (a.create_date, a.article_id) < (?, ?)
+            ORDER BY a.create_date DESC, a.article_id DESC
+            LIMIT ?""";
+
     private static final String COUNT_BY_TAG_BEFORE_DATE = """
             SELECT count(1)
             FROM articles a
             JOIN article_tag_link atl ON a.article_id = atl.article_id AND atl.tag_id = ?
             WHERE a.create_date < ?""";
 
-    private static final String LIST_BY_TAG_BEFORE_DATE_PAGED = SELECT_ALL + " " + """
+    private static final String LIST_BY_TAG_BEFORE_DATE_PAGED = """
             JOIN article_tag_link atl ON a.article_id = atl.article_id AND atl.tag_id = ?
             WHERE a.create_date < ?
-            ORDER BY a.create_date DESC
+            ORDER BY a.create_date DESC, a.article_id DESC
             OFFSET ? LIMIT ?""";
 
-    private static final String LIST_BETWEEN_DATES = SELECT_ALL + " " + """
+    private static final String LIST_BY_TAG_BEFORE_CURSOR = """
+            JOIN article_tag_link atl ON a.article_id = atl.article_id AND atl.tag_id = ?
+            WHERE a.create_date < ? AND (a.create_date, a.article_id) < (?, ?)
+            ORDER BY a.create_date DESC, a.article_id DESC
+            LIMIT ?""";
+
+    private static final String LIST_BETWEEN_DATES = """
             WHERE a.create_date >= ? AND a.create_date < ?
             ORDER BY a.create_date DESC""";
 
-    private static final String LIST_BY_TAG_BETWEEN_DATES = SELECT_ALL + " " + """
+    private static final String LIST_BY_TAG_BETWEEN_DATES = """
             JOIN article_tag_link atl ON a.article_id = atl.article_id AND atl.tag_id = ?
             WHERE a.create_date >= ? AND a.create_date < ?
             ORDER BY a.create_date DESC""";
 
+    private static final String FIND_CREATE_DATE_BY_ID = """
+            SELECT a.create_date create_date
+            FROM articles a
+            WHERE a.article_id = ?""";
+
+    private static final String LIST_CREATE_DATES_BETWEEN_DATES = """
+            SELECT a.create_date create_date
+            FROM articles a
+            WHERE a.create_date >= ? AND a.create_date < ?""";
+
+    private static final String LIST_CREATE_DATES_BY_TAG_BETWEEN_DATES = """
+            SELECT a.create_date create_date
+            FROM articles a
+            JOIN article_tag_link atl ON a.article_id = atl.article_id AND atl.tag_id = ?
+            WHERE a.create_date >= ? AND a.create_date < ?""";
+
     private static final String SELECT_COMMENTS_BY_ARTICLE_IDS = """
             SELECT
                 c.article_id article_id,
@@ -143,7 +268,9 @@ public class ArticleDaoImpl implements ArticleDao {
                 c.moderation_status moderation_status,
                 c.ip_address ip_address,
                 c.referrer referrer,
-                c.user_agent user_agent
+                c.user_agent user_agent,
+                c.content_rendered content_rendered,
+                c.render_version render_version
             FROM comments c
             LEFT JOIN users cu ON cu.user_id = c.create_user_id
             WHERE c.article_id = ANY (?)
@@ -172,6 +299,13 @@ public class ArticleDaoImpl implements ArticleDao {
     private static final String COL_CONTENT = "content";
     private static final String COL_SUMMARY = "summary";
     private static final String COL_COMMENTS_ENABLED = "comments_enabled";
+    private static final String COL_CONTENT_RENDERED = "content_rendered";
+    private static final String COL_SUMMARY_RENDERED = "summary_rendered";
+    private static final String COL_RENDER_VERSION = "render_version";
+    private static final String COL_TOTAL_COUNT = "total_count";
+    private static final String COL_TAGS_JSON = "tags_json";
+    private static final String COL_COMMENTS_JSON = "comments_json";
+    private static final String COL_COMMENT_COUNT = "comment_count";
 
     private static final String COL_TAG_ID = "tag_id";
     private static final String COL_TAG_NAME = "name";
@@ -194,6 +328,8 @@ public class ArticleDaoImpl implements ArticleDao {
     private static final String COL_COMMENT_IP_ADDRESS = "ip_address";
     private static final String COL_COMMENT_REFERRER = "referrer";
     private static final String COL_COMMENT_USER_AGENT = "user_agent";
+    private static final String COL_COMMENT_CONTENT_RENDERED = "content_rendered";
+    private static final String COL_COMMENT_RENDER_VERSION = "render_version";
 
     @Override
     public long save(Article article) {
@@ -220,7 +356,7 @@ public class ArticleDaoImpl implements ArticleDao {
     public Article findById(long articleId) {
         try (var ignored = metrics.timer("dao.article.find.by.id").time()) {
             return withReadonlyConnection(dataSource, con -> {
-                return loadArticle(con, FIND_BY_ID, ps -> {
+                return loadArticle(con, articleQuery(ArticleProjection.FULL, false, FIND_BY_ID), ps -> {
                     ps.setLong(1, articleId);
                 });
             });
@@ -231,7 +367,7 @@ public class ArticleDaoImpl implements ArticleDao {
     public Article findByPermalink(String permalink) {
         try (var ignored = metrics.timer("dao.article.find.by.permalink").time()) {
             return withReadonlyConnection(dataSource, con -> {
-                return loadArticle(con, FIND_BY_PERMALINK, ps -> {
+                return loadArticle(con, articleQuery(ArticleProjection.FULL, false, FIND_BY_PERMALINK), ps -> {
                     ps.setString(1, permalink);
                 });
             });
@@ -239,11 +375,39 @@ public class ArticleDaoImpl implements ArticleDao {
     }
 
     @Override
-    public Page<Article> listByDateDesc(long offset, long length) {
+    public Long findIdByPermalink(String permalink) {
+        try (var ignored = metrics.timer("dao.article.find.id.by.permalink").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                try (PreparedStatement ps = con.prepareStatement(FIND_ID_BY_PERMALINK)) {
+                    ps.setString(1, permalink);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? rs.getLong("article_id") : null;
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<Article> listByIds(ArticleProjection projection, Collection<Long> articleIds) {
+        if (articleIds.isEmpty()) {
+            return List.of();
+        }
+        try (var ignored = metrics.timer("dao.article.list.by.ids").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return loadArticles(con, projection, articleQuery(projection, false, LIST_BY_IDS), ps -> {
+                    ps.setArray(1, con.createArrayOf(JDBCType.BIGINT.name(), articleIds.toArray()));
+                });
+            });
+        }
+    }
+
+    @Override
+    public Page<Article> listByDateDesc(ArticleProjection projection, long offset, long length) {
         try (var ignored = metrics.timer("dao.article.list.by.date.desc").time()) {
             return withReadonlyConnection(dataSource, con -> {
                 return loadArticlesPaged(
-                        con, offset, length, COUNT_ALL, LIST_PAGED,
+                        con, projection, offset, length, COUNT_ALL, LIST_PAGED,
                         ps -> {
                         },
                         ps -> {
@@ -255,11 +419,11 @@ public class ArticleDaoImpl implements ArticleDao {
     }
 
     @Override
-    public Page<Article> listBeforeDate(Date endDate, long offset, long length) {
+    public Page<Article> listBeforeDate(ArticleProjection projection, Date endDate, long offset, long length) {
         try (var ignored = metrics.timer("dao.article.list.before.date").time()) {
             return withReadonlyConnection(dataSource, con -> {
                 return loadArticlesPaged(
-                        con, offset, length, COUNT_BEFORE_DATE, LIST_BEFORE_DATE_PAGED,
+                        con, projection, offset, length, COUNT_BEFORE_DATE, LIST_BEFORE_DATE_PAGED,
                         ps -> {
                             ps.setTimestamp(1, new Timestamp(endDate.getTime()));
                         },
@@ -273,11 +437,11 @@ public class ArticleDaoImpl implements ArticleDao {
     }
 
     @Override
-    public Page<Article> listByTagBeforeDate(Tag tag, Date endDate, long offset, long length) {
+    public Page<Article> listByTagBeforeDate(ArticleProjection projection, Tag tag, Date endDate, long offset, long length) {
         try (var ignored = metrics.timer("dao.article.list.by.tag.before.date").time()) {
             return withReadonlyConnection(dataSource, con -> {
                 return loadArticlesPaged(
-                        con, offset, length, COUNT_BY_TAG_BEFORE_DATE, LIST_BY_TAG_BEFORE_DATE_PAGED,
+                        con, projection, offset, length, COUNT_BY_TAG_BEFORE_DATE, LIST_BY_TAG_BEFORE_DATE_PAGED,
                         ps -> {
                             ps.setLong(1, tag.getId());
                             ps.setTimestamp(2, new Timestamp(endDate.getTime()));
@@ -293,10 +457,69 @@ public class ArticleDaoImpl implements ArticleDao {
     }
 
     @Override
-    public List<Article> listBetweenDates(Date startDate, Date endDate) {
+    public long countBeforeDate(Date endDate) {
+        try (var ignored = metrics.timer("dao.article.count.before.date").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return countArticles(con, COUNT_BEFORE_DATE, ps -> {
+                    ps.setTimestamp(1, new Timestamp(endDate.getTime()));
+                });
+            });
+        }
+    }
+
+    @Override
+    public long countByTagBeforeDate(Tag tag, Date endDate) {
+        try (var ignored = metrics.timer("dao.article.count.by.tag.before.date").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return countArticles(con, COUNT_BY_TAG_BEFORE_DATE, ps -> {
+                    ps.setLong(1, tag.getId());
+                    ps.setTimestamp(2, new Timestamp(endDate.getTime()));
+                });
+            });
+        }
+    }
+
+    @Override
+    public Page<Article> listBeforeCursor(
+            ArticleProjection projection, Date endDate, ArticleCursor after, long offset, long length, long totalSize) {
+        try (var ignored = metrics.timer("dao.article.list.before.cursor").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return loadArticlesAfterCursor(
+                        con, projection, offset, length, totalSize, LIST_BEFORE_CURSOR,
+                        ps -> {
+                            ps.setTimestamp(1, new Timestamp(endDate.getTime()));
+                            ps.setTimestamp(2, Timestamp.from(after.createDate()));
+                            ps.setLong(3, after.articleId());
+                            ps.setLong(4, length + 1);
+                        });
+            });
+        }
+    }
+
+    @Override
+    public Page<Article> listByTagBeforeCursor(
+            ArticleProjection projection, Tag tag, Date endDate, ArticleCursor after, long offset, long length,
+            long totalSize) {
+        try (var ignored = metrics.timer("dao.article.list.by.tag.before.cursor").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return loadArticlesAfterCursor(
+                        con, projection, offset, length, totalSize, LIST_BY_TAG_BEFORE_CURSOR,
+                        ps -> {
+                            ps.setLong(1, tag.getId());
+                            ps.setTimestamp(2, new Timestamp(endDate.getTime()));
+                            ps.setTimestamp(3, Timestamp.from(after.createDate()));
+                            ps.setLong(4, after.articleId());
+                            ps.setLong(5, length + 1);
+                        });
+            });
+        }
+    }
+
+    @Override
+    public List<Article> listBetweenDates(ArticleProjection projection, Date startDate, Date endDate) {
         try (var ignored = metrics.timer("dao.article.list.between.dates").time()) {
             return withReadonlyConnection(dataSource, con -> {
-                return loadArticles(con, LIST_BETWEEN_DATES, ps -> {
+                return loadArticles(con, projection, articleQuery(projection, false, LIST_BETWEEN_DATES), ps -> {
                     ps.setTimestamp(1, new Timestamp(startDate.getTime()));
                     ps.setTimestamp(2, new Timestamp(endDate.getTime()));
                 });
@@ -305,10 +528,10 @@ public class ArticleDaoImpl implements ArticleDao {
     }
 
     @Override
-    public List<Article> listByTagBetweenDates(Tag tag, Date startDate, Date endDate) {
+    public List<Article> listByTagBetweenDates(ArticleProjection projection, Tag tag, Date startDate, Date endDate) {
         try (var ignored = metrics.timer("dao.article.list.by.tag.between.dates").time()) {
             return withReadonlyConnection(dataSource, con -> {
-                return loadArticles(con, LIST_BY_TAG_BETWEEN_DATES, ps -> {
+                return loadArticles(con, projection, articleQuery(projection, false, LIST_BY_TAG_BETWEEN_DATES), ps -> {
                     ps.setLong(1, tag.getId());
                     ps.setTimestamp(2, new Timestamp(startDate.getTime()));
                     ps.setTimestamp(3, new Timestamp(endDate.getTime()));
@@ -317,6 +540,93 @@ public class ArticleDaoImpl implements ArticleDao {
         }
     }
 
+    @Override
+    public Date findCreationDateById(long articleId) {
+        try (var ignored = metrics.timer("dao.article.find.creation.date.by.id").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                List<Date> dates = loadCreationDates(con, FIND_CREATE_DATE_BY_ID, ps -> {
+                    ps.setLong(1, articleId);
+                });
+                return dates.isEmpty() ? null : dates.get(0);
+            });
+        }
+    }
+
+    @Override
+    public List<Date> listCreationDatesBetweenDates(Date startDate, Date endDate) {
+        try (var ignored = metrics.timer("dao.article.list.creation.dates.between.dates").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return loadCreationDates(con, LIST_CREATE_DATES_BETWEEN_DATES, ps -> {
+                    ps.setTimestamp(1, new Timestamp(startDate.getTime()));
+                    ps.setTimestamp(2, new Timestamp(endDate.getTime()));
+                });
+            });
+        }
+    }
+
+    @Override
+    public List<Date> listCreationDatesByTagBetweenDates(Tag tag, Date startDate, Date endDate) {
+        try (var ignored = metrics.timer("dao.article.list.creation.dates.by.tag.between.dates").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                return loadCreationDates(con, LIST_CREATE_DATES_BY_TAG_BETWEEN_DATES, ps -> {
+                    ps.setLong(1, tag.getId());
+                    ps.setTimestamp(2, new Timestamp(startDate.getTime()));
+                    ps.setTimestamp(3, new Timestamp(endDate.getTime()));
+                });
+            });
+        }
+    }
+
+    @Override
+    public List<Article> listRenderStale(int renderVersion, int limit) {
+        try (var ignored = metrics.timer("dao.article.list.render.stale").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                List<Article> articles = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(LIST_RENDER_STALE)) {
+                    ps.setInt(1, renderVersion);
+                    ps.setInt(2, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Article article = new Article();
+                            article.setId(rs.getLong(COL_ARTICLE_ID));
+                            article.setContentType(ContentType.valueOf(rs.getString(COL_CONTENT_TYPE)));
+                            article.setModificationDate(rs.getTimestamp(COL_MODIFY_DATE));
+                            article.setContent(rs.getString(COL_CONTENT));
+                            article.setSummary(rs.getString(COL_SUMMARY));
+                            articles.add(article);
+                        }
+                    }
+                }
+                return articles;
+            });
+        }
+    }
+
+    @Override
+    public boolean saveRendered(Article article) {
+        try (var ignored = metrics.timer("dao.article.save.rendered").time()) {
+            return withTransaction(dataSource, con -> {
+                try (PreparedStatement ps = con.prepareStatement(UPDATE_RENDERED)) {
+                    ps.setString(1, article.getRenderedContent());
+                    ps.setString(2, article.getRenderedSummary());
+                    ps.setObject(3, article.getRenderVersion(), Types.INTEGER);
+                    ps.setLong(4, article.getId());
+                    // keep the loaded timestamp as-is so sub-millisecond precision still matches
+                    Date modified = article.getModificationDate();
+                    if (modified == null) {
+                        ps.setNull(5, Types.TIMESTAMP);
+                    } else if (modified instanceof Timestamp ts) {
+                        ps.setTimestamp(5, ts);
+                    } else {
+                        ps.setTimestamp(5, new Timestamp(modified.getTime()));
+                    }
+                    // a concurrent edit wins; it has already stored its own rendering
+                    return ps.executeUpdate() == 1;
+                }
+            });
+        }
+    }
+
     private long createArticle(Connection con, Article article) throws SQLException {
         try (PreparedStatement ps = con.prepareStatement(INSERT)) {
             addSaveParams(ps, article);
@@ -334,7 +644,7 @@ public class ArticleDaoImpl implements ArticleDao {
     private long updateArticle(Connection con, Article article) throws SQLException {
         try (PreparedStatement ps = con.prepareStatement(UPDATE)) {
             addSaveParams(ps, article);
-            ps.setLong(11, article.getId());
+            ps.setLong(14, article.getId());
             int count = ps.executeUpdate();
             if (count != 1) {
                 throw new DataAccessException("Unable to save article");
@@ -371,49 +681,152 @@ public class ArticleDaoImpl implements ArticleDao {
         ps.setString(8, article.getContent());
         ps.setString(9, article.getSummary());
         ps.setBoolean(10, article.isCommentsEnabled());
+        ps.setString(11, article.getRenderedContent());
+        ps.setString(12, article.getRenderedSummary());
+        ps.setObject(13, article.getRenderVersion(), Types.INTEGER);
     }
 
+    // the total normally comes from a window count on the list query, and the count query only for an empty page
     private Page<Article> loadArticlesPaged(
             Connection con,
+            ArticleProjection projection,
             long offset,
             long length,
             String countSql,
             String querySql,
             UncheckedConsumer<PreparedStatement> countCallback,
             UncheckedConsumer<PreparedStatement> queryCallback) throws Exception {
+
+        List<Article> articles;
         long count;
+        int roundTrips;
+        if (separateCountQuery) {
+            count = countArticles(con, countSql, countCallback);
+            articles = loadArticles(con, projection, articleQuery(projection, false, querySql), queryCallback, null);
+            roundTrips = 2;
+        } else {
+            long[] matched = {0L};
+            articles = loadArticles(con, projection, articleQuery(projection, true, querySql), queryCallback,
+                    rs -> matched[0] = rs.getLong(COL_TOTAL_COUNT));
+            roundTrips = 1;
+            if (articles.isEmpty()) {
+                count = countArticles(con, countSql, countCallback);
+                roundTrips++;
+            } else {
+                count = matched[0];
+            }
+        }
+
+        // tags and comments which weren't loaded with the articles
+        if (!articles.isEmpty()) {
+            roundTrips += loadStrategy.separateQueries(projection == ArticleProjection.FULL);
+        }
+        metrics.histogram(separateCountQuery
+                ? "dao.article.list.paged.round.trips.count.query"
+                : "dao.article.list.paged.round.trips.window.count").update(roundTrips);
+
+        // any page can be continued by cursor, whichever way it was found
+        String next = null;
+        if (!articles.isEmpty() && offset + articles.size() < count) {
+            next = ArticleCursor.of(articles.get(articles.size() - 1)).toString();
+        }
+        return new Page<>(articles, offset, count, length, next);
+    }
+
+    private Page<Article> loadArticlesAfterCursor(
+            Connection con,
+            ArticleProjection projection,
+            long offset,
+            long length,
+            long totalSize,
+            String querySql,
+            UncheckedConsumer<PreparedStatement> queryCallback) throws Exception {
+
+        // a window count would have to read every remaining row before the limit applies, so the total is passed in,
+        // and one extra row is read to tell whether there's a page after this one
+        List<Article> articles = loadArticles(con, projection, articleQuery(projection, false, querySql), queryCallback, null);
+        boolean more = articles.size() > length;
+        if (more) {
+            articles = articles.subList(0, (int) length);
+        }
+
+        int roundTrips = 1;
+        if (!articles.isEmpty()) {
+            roundTrips += loadStrategy.separateQueries(projection == ArticleProjection.FULL);
+        }
+        metrics.histogram("dao.article.list.cursor.round.trips").update(roundTrips);
+
+        // the offset comes from the request, so keep it consistent with what the cursor actually found
+        long lastOffset = Math.max(0, totalSize - articles.size());
+        long position = more ? Math.min(offset, Math.max(0, lastOffset - 1)) : lastOffset;
+        long total = Math.max(totalSize, position + articles.size() + (more ? 1 : 0));
+
+        String next = more ? ArticleCursor.of(articles.get(articles.size() - 1)).toString() : null;
+        return new Page<>(articles, position, total, length, next);
+    }
+
+    private List<Date> loadCreationDates(
+            Connection con, String sql, UncheckedConsumer<PreparedStatement> callback) throws Exception {
+        List<Date> dates = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            callback.invoke(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    dates.add(rs.getTimestamp(COL_CREATE_DATE));
+                }
+            }
+        }
+        return dates;
+    }
+
+    private long countArticles(
+            Connection con, String countSql, UncheckedConsumer<PreparedStatement> countCallback) throws Exception {
         try (PreparedStatement ps = con.prepareStatement(countSql)) {
             countCallback.invoke(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) {
                     throw new DataAccessException("Unable to retrieve articles");
                 }
-                count = rs.getLong(1);
+                return rs.getLong(1);
             }
         }
-        var articles = loadArticles(con, querySql, queryCallback);
-        return new Page<>(articles, offset, count, length);
     }
 
     private List<Article> loadArticles(
             Connection con,
+            ArticleProjection projection,
             String sql,
             UncheckedConsumer<PreparedStatement> callback) throws Exception {
+        return loadArticles(con, projection, sql, callback, null);
+    }
+
+    private List<Article> loadArticles(
+            Connection con,
+            ArticleProjection projection,
+            String sql,
+            UncheckedConsumer<PreparedStatement> callback,
+            UncheckedConsumer<ResultSet> rowCallback) throws Exception {
         List<Article> articles = new ArrayList<>();
+        Map<Long, User> users = new HashMap<>();
         try (PreparedStatement ps = con.prepareStatement(sql)) {
             callback.invoke(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    articles.add(populateArticle(rs));
+                    if (rowCallback != null) {
+                        rowCallback.invoke(rs);
+                    }
+                    articles.add(populateArticle(rs, projection, users));
                 }
             }
         }
+        if (articles.isEmpty()) {
+            return articles;
+        }
         Map<Long, Article> map = new HashMap<>();
         for (Article article : articles) {
             map.put(article.getId(), article);
         }
-        populateTags(con, map);
-        populateComments(con, map);
+        populateSeparately(con, projection, map, users);
         return articles;
     }
 
@@ -423,22 +836,52 @@ public class ArticleDaoImpl implements ArticleDao {
             UncheckedConsumer<PreparedStatement> callback) throws Exception {
 
         Article article;
+        Map<Long, User> users = new HashMap<>();
         try (PreparedStatement ps = con.prepareStatement(sql)) {
             callback.invoke(ps);
             try (ResultSet rs = ps.executeQuery()) {
                 if (!rs.next()) {
                     return null;
                 }
-                article = populateArticle(rs);
+                article = populateArticle(rs, ArticleProjection.FULL, users);
             }
         }
-        var map = Map.of(article.getId(), article);
-        populateTags(con, map);
-        populateComments(con, map);
+        populateSeparately(con, ArticleProjection.FULL, Map.of(article.getId(), article), users);
         return article;
     }
 
-    private void populateComments(Connection con, Map<Long, Article> articles) throws SQLException {
+    // sql follows the select list and the joins for article authors
+    private String articleQuery(ArticleProjection projection, boolean counted, String sql) {
+        boolean full = projection == ArticleProjection.FULL;
+        StringBuilder query = new StringBuilder(SELECT_COLUMNS);
+        query.append(",\n").append(full ? CONTENT_COLUMNS : SUMMARY_CONTENT_COLUMNS);
+        if (loadStrategy.aggregatesTags()) {
+            query.append(",\n").append(TAGS_AGGREGATE);
+        }
+        if (!full) {
+            query.append(",\n").append(COMMENT_COUNT);
+        } else if (loadStrategy.aggregatesComments()) {
+            query.append(",\n").append(COMMENTS_AGGREGATE);
+        }
+        if (counted) {
+            query.append(",\n").append(TOTAL_COUNT);
+        }
+        return query.append('\n').append(FROM_ARTICLES).append('\n').append(sql).toString();
+    }
+
+    private void populateSeparately(
+            Connection con, ArticleProjection projection, Map<Long, Article> articles, Map<Long, User> users)
+            throws SQLException {
+        if (!loadStrategy.aggregatesTags()) {
+            populateTags(con, articles);
+        }
+        if (projection == ArticleProjection.FULL && !loadStrategy.aggregatesComments()) {
+            populateComments(con, articles, users);
+        }
+    }
+
+    private void populateComments(Connection con, Map<Long, Article> articles, Map<Long, User> users)
+            throws SQLException {
         Object[] keys = articles.keySet().stream().toArray();
         try (PreparedStatement ps = con.prepareStatement(SELECT_COMMENTS_BY_ARTICLE_IDS)) {
             ps.setArray(1, con.createArrayOf(JDBCType.BIGINT.name(), keys));
@@ -451,15 +894,9 @@ public class ArticleDaoImpl implements ArticleDao {
                         comment.setId(rs.getLong(COL_COMMENT_ID));
                         comment.setArticle(article);
                         comment.setContentType(ContentType.valueOf(rs.getString(COL_COMMENT_CONTENT_TYPE)));
-                        long createUserId = rs.getLong(COL_COMMENT_CREATE_USER_ID);
-                        if (!rs.wasNull()) {
-                            User user = new User();
-                            user.setId(createUserId);
-                            user.setUserName(rs.getString(COL_COMMENT_CREATE_USERNAME));
-                            user.setEmailAddress(rs.getString(COL_COMMENT_CREATE_EMAIL));
-                            user.setWebsite(rs.getString(COL_COMMENT_CREATE_WEBSITE));
-                            comment.setCreatedByUser(user);
-                        }
+                        comment.setCreatedByUser(populateUser(rs, users,
+                                COL_COMMENT_CREATE_USER_ID, COL_COMMENT_CREATE_USERNAME,
+                                COL_COMMENT_CREATE_EMAIL, COL_COMMENT_CREATE_WEBSITE));
                         comment.setCreationDate(rs.getTimestamp(COL_COMMENT_CREATE_DATE));
                         comment.setAnonymousUserName(rs.getString(COL_COMMENT_ANON_USER_NAME));
                         comment.setAnonymousEmailAddress(rs.getString(COL_COMMENT_ANON_EMAIL_ADDRESS));
@@ -471,6 +908,8 @@ public class ArticleDaoImpl implements ArticleDao {
                         comment.setIpAddress(rs.getString(COL_COMMENT_IP_ADDRESS));
                         comment.setReferrer(rs.getString(COL_COMMENT_REFERRER));
                         comment.setUserAgent(rs.getString(COL_COMMENT_USER_AGENT));
+                        comment.setRenderedContent(rs.getString(COL_COMMENT_CONTENT_RENDERED));
+                        comment.setRenderVersion(rs.getObject(COL_COMMENT_RENDER_VERSION, Integer.class));
                         article.getComments().add(comment);
                     }
                 }
@@ -498,7 +937,8 @@ public class ArticleDaoImpl implements ArticleDao {
         }
     }
 
-    private Article populateArticle(ResultSet rs) throws SQLException {
+    private Article populateArticle(ResultSet rs, ArticleProjection projection, Map<Long, User> users)
+            throws SQLException {
         Article article = new Article();
         article.setId(rs.getLong(COL_ARTICLE_ID));
         article.setContentType(ContentType.valueOf(rs.getString(COL_CONTENT_TYPE)));
@@ -508,30 +948,111 @@ public class ArticleDaoImpl implements ArticleDao {
         article.setContent(rs.getString(COL_CONTENT));
         article.setSummary(rs.getString(COL_SUMMARY));
         article.setCommentsEnabled(rs.getBoolean(COL_COMMENTS_ENABLED));
+        article.setRenderedContent(rs.getString(COL_CONTENT_RENDERED));
+        article.setRenderedSummary(rs.getString(COL_SUMMARY_RENDERED));
+        article.setRenderVersion(rs.getObject(COL_RENDER_VERSION, Integer.class));
 
-        long createUserId = rs.getLong(COL_CREATE_USER_ID);
-        if (!rs.wasNull()) {
-            User user = new User();
-            user.setId(createUserId);
-            user.setUserName(rs.getString(COL_CREATE_USERNAME));
-            user.setEmailAddress(rs.getString(COL_CREATE_EMAIL));
-            user.setWebsite(rs.getString(COL_CREATE_WEBSITE));
-            article.setCreatedByUser(user);
-        }
+        article.setCreatedByUser(populateUser(rs, users,
+                COL_CREATE_USER_ID, COL_CREATE_USERNAME, COL_CREATE_EMAIL, COL_CREATE_WEBSITE));
         article.setCreationDate(rs.getTimestamp(COL_CREATE_DATE));
+        article.setModifiedByUser(populateUser(rs, users,
+                COL_MODIFY_USER_ID, COL_MODIFY_USERNAME, COL_MODIFY_EMAIL, COL_MODIFY_WEBSITE));
 
-        long modifyUserId = rs.getLong(COL_MODIFY_USER_ID);
-        if (!rs.wasNull()) {
-            User user = new User();
-            user.setId(modifyUserId);
-            user.setUserName(rs.getString(COL_MODIFY_USERNAME));
-            user.setEmailAddress(rs.getString(COL_MODIFY_EMAIL));
-            user.setWebsite(rs.getString(COL_MODIFY_WEBSITE));
-            article.setModifiedByUser(user);
+        if (loadStrategy.aggregatesTags()) {
+            for (JsonNode node : readJsonArray(rs, COL_TAGS_JSON)) {
+                Tag tag = new Tag();
+                tag.setId(node.get(COL_TAG_ID).longValue());
+                tag.setName(node.get(COL_TAG_NAME).textValue());
+                tag.setDisplayName(node.get(COL_TAG_DISPLAY_NAME).textValue());
+                article.getTags().add(tag);
+            }
+        }
+        if (projection != ArticleProjection.FULL) {
+            article.setCommentCount(rs.getInt(COL_COMMENT_COUNT));
+        } else if (loadStrategy.aggregatesComments()) {
+            for (JsonNode node : readJsonArray(rs, COL_COMMENTS_JSON)) {
+                article.getComments().add(populateComment(node, article, users));
+            }
         }
         return article;
     }
 
+    private Comment populateComment(JsonNode node, Article article, Map<Long, User> users) {
+        Comment comment = new Comment();
+        comment.setId(node.get(COL_COMMENT_ID).longValue());
+        comment.setArticle(article);
+        comment.setContentType(ContentType.valueOf(node.get(COL_COMMENT_CONTENT_TYPE).textValue()));
+
+        JsonNode userId = node.get(COL_COMMENT_CREATE_USER_ID);
+        if (userId != null && !userId.isNull()) {
+            comment.setCreatedByUser(users.computeIfAbsent(userId.longValue(), id -> {
+                User user = new User();
+                user.setId(id);
+                user.setUserName(node.get(COL_COMMENT_CREATE_USERNAME).textValue());
+                user.setEmailAddress(node.get(COL_COMMENT_CREATE_EMAIL).textValue());
+                user.setWebsite(node.get(COL_COMMENT_CREATE_WEBSITE).textValue());
+                return user;
+            }));
+        }
+
+        long micros = node.get(COL_COMMENT_CREATE_DATE).longValue();
+        Timestamp created = new Timestamp(Math.floorDiv(micros, 1000L));
+        created.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        comment.setCreationDate(created);
+
+        comment.setAnonymousUserName(node.get(COL_COMMENT_ANON_USER_NAME).textValue());
+        comment.setAnonymousEmailAddress(node.get(COL_COMMENT_ANON_EMAIL_ADDRESS).textValue());
+        comment.setAnonymousWebsite(node.get(COL_COMMENT_ANON_WEBSITE).textValue());
+        comment.setTitle(node.get(COL_COMMENT_TITLE).textValue());
+        comment.setContent(node.get(COL_COMMENT_CONTENT).textValue());
+        comment.setVisible(node.get(COL_COMMENT_VISIBLE).booleanValue());
+        comment.setModerationStatus(ModerationStatus.valueOf(node.get(COL_COMMENT_MODERATION_STATUS).textValue()));
+        comment.setIpAddress(node.get(COL_COMMENT_IP_ADDRESS).textValue());
+        comment.setReferrer(node.get(COL_COMMENT_REFERRER).textValue());
+        comment.setUserAgent(node.get(COL_COMMENT_USER_AGENT).textValue());
+        comment.setRenderedContent(node.get(COL_COMMENT_CONTENT_RENDERED).textValue());
+        JsonNode renderVersion = node.get(COL_COMMENT_RENDER_VERSION);
+        comment.setRenderVersion(renderVersion.isNull() ? null : renderVersion.intValue());
+        return comment;
+    }
+
+    private static JsonNode readJsonArray(ResultSet rs, String column) throws SQLException {
+        String json = rs.getString(column);
+        if (json == null) {
+            return MAPPER.createArrayNode();
+        }
+        try {
+            return MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new DataAccessException("Unable to read " + column, e);
+        }
+    }
+
+    // authors are shared between all articles and comments loaded together
+    private User populateUser(
+            ResultSet rs,
+            Map<Long, User> users,
+            String idColumn,
+            String userNameColumn,
+            String emailColumn,
+            String websiteColumn) throws SQLException {
+
+        long userId = rs.getLong(idColumn);
+        if (rs.wasNull()) {
+            return null;
+        }
+        User user = users.get(userId);
+        if (user == null) {
+            user = new User();
+            user.setId(userId);
+            user.setUserName(rs.getString(userNameColumn));
+            user.setEmailAddress(rs.getString(emailColumn));
+            user.setWebsite(rs.getString(websiteColumn));
+            users.put(userId, user);
+        }
+        return user;
+    }
+
     private void deleteTagLink(Connection con, Article article) throws SQLException {
         try (PreparedStatement ps = con.prepareStatement(DELETE_TAG_LINK_BY_ARTICLE_ID)) {
             ps.setLong(1, article.getId());
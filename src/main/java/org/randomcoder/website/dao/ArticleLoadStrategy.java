@@ -0,0 +1,31 @@
+package org.randomcoder.website.dao;
+
+// tags and comments are loaded by separate queries keyed by article id, or aggregated as JSON into the article query
+public enum ArticleLoadStrategy {
+
+    SEPARATE(false, false),
+    AGGREGATE_TAGS(true, false),
+    AGGREGATE(true, true);
+
+    private final boolean aggregatesTags;
+    private final boolean aggregatesComments;
+
+    ArticleLoadStrategy(boolean aggregatesTags, boolean aggregatesComments) {
+        this.aggregatesTags = aggregatesTags;
+        this.aggregatesComments = aggregatesComments;
+    }
+
+    public boolean aggregatesTags() {
+        return aggregatesTags;
+    }
+
+    public boolean aggregatesComments() {
+        return aggregatesComments;
+    }
+
+    // queries needed after the article query
+    public int separateQueries(boolean comments) {
+        return (aggregatesTags ? 0 : 1) + (comments && !aggregatesComments ? 1 : 0);
+    }
+
+}
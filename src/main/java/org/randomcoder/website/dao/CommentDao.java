@@ -3,6 +3,8 @@ package org.randomcoder.website.dao;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.Page;
 
+import java.util.List;
+
 public interface CommentDao {
 
     Comment findById(long commentId);
@@ -13,4 +15,8 @@ public interface CommentDao {
 
     Page<Comment> listForModeration(long offset, long length);
 
+    List<Comment> listRenderStale(int renderVersion, int limit);
+
+    boolean saveRendered(Comment comment);
+
 }
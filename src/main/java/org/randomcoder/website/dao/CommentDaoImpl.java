@@ -37,8 +37,9 @@ public class CommentDaoImpl implements CommentDao {
             INSERT INTO comments (
                 article_id, content_type, create_user_id, create_date,
                 anonymous_user_name, anonymous_email_address, anonymous_website,
-                title, "content", visible, moderation_status, referrer, ip_address, user_agent)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                title, "content", visible, moderation_status, referrer, ip_address, user_agent,
+                content_rendered, render_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             RETURNING comment_id""";
 
     private static final String UPDATE = """
@@ -56,9 +57,27 @@ public class CommentDaoImpl implements CommentDao {
                 moderation_status = ?,
                 referrer = ?,
                 ip_address = ?,
-                user_agent = ?
+                user_agent = ?,
+                content_rendered = ?,
+                render_version = ?
             WHERE comment_id = ?""";
 
+    private static final String UPDATE_RENDERED = """
+            UPDATE comments SET
+                content_rendered = ?,
+                render_version = ?
+            WHERE comment_id = ?""";
+
+    private static final String LIST_RENDER_STALE = """
+            SELECT
+                c.comment_id comment_id,
+                c.content_type content_type,
+                c.content "content"
+            FROM comments c
+            WHERE c.render_version IS NULL OR c.render_version <> ?
+            ORDER BY c.comment_id
+            LIMIT ?""";
+
     private static final String SELECT_ALL = """
             SELECT
                 c.comment_id comment_id,
@@ -79,7 +98,9 @@ public class CommentDaoImpl implements CommentDao {
                 c.moderation_status moderation_status,
                 c.referrer referrer,
                 c.ip_address ip_address,
-                c.user_agent user_agent
+                c.user_agent user_agent,
+                c.content_rendered content_rendered,
+                c.render_version render_version
             FROM comments c
             JOIN articles a ON c.article_id = a.article_id
             LEFT OUTER JOIN users u ON c.create_user_id = u.user_id""";
@@ -116,6 +137,8 @@ public class CommentDaoImpl implements CommentDao {
     private static final String COL_REFERRER = "referrer";
     private static final String COL_IP_ADDRESS = "ip_address";
     private static final String COL_USER_AGENT = "user_agent";
+    private static final String COL_CONTENT_RENDERED = "content_rendered";
+    private static final String COL_RENDER_VERSION = "render_version";
 
     @Override
     public Comment findById(long commentId) {
@@ -171,6 +194,43 @@ public class CommentDaoImpl implements CommentDao {
         }
     }
 
+    @Override
+    public List<Comment> listRenderStale(int renderVersion, int limit) {
+        try (var ignored = metrics.timer("dao.comment.list.render.stale").time()) {
+            return withReadonlyConnection(dataSource, con -> {
+                List<Comment> comments = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(LIST_RENDER_STALE)) {
+                    ps.setInt(1, renderVersion);
+                    ps.setInt(2, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Comment comment = new Comment();
+                            comment.setId(rs.getLong(COL_COMMENT_ID));
+                            comment.setContentType(ContentType.valueOf(rs.getString(COL_CONTENT_TYPE)));
+                            comment.setContent(rs.getString(COL_CONTENT));
+                            comments.add(comment);
+                        }
+                    }
+                }
+                return comments;
+            });
+        }
+    }
+
+    @Override
+    public boolean saveRendered(Comment comment) {
+        try (var ignored = metrics.timer("dao.comment.save.rendered").time()) {
+            return withTransaction(dataSource, con -> {
+                try (PreparedStatement ps = con.prepareStatement(UPDATE_RENDERED)) {
+                    ps.setString(1, comment.getRenderedContent());
+                    ps.setObject(2, comment.getRenderVersion(), Types.INTEGER);
+                    ps.setLong(3, comment.getId());
+                    return ps.executeUpdate() == 1;
+                }
+            });
+        }
+    }
+
     private Page<Comment> loadCommentsPaged(
             Connection con,
             long offset,
@@ -225,7 +285,7 @@ public class CommentDaoImpl implements CommentDao {
     private long updateComment(Connection con, Comment comment) throws SQLException {
         try (PreparedStatement ps = con.prepareStatement(UPDATE)) {
             addSaveParams(ps, comment);
-            ps.setLong(15, comment.getId());
+            ps.setLong(17, comment.getId());
             int count = ps.executeUpdate();
             if (count != 1) {
                 throw new DataAccessException("Unable to save comment");
@@ -254,6 +314,8 @@ public class CommentDaoImpl implements CommentDao {
         ps.setString(12, comment.getReferrer());
         ps.setString(13, comment.getIpAddress());
         ps.setString(14, comment.getUserAgent());
+        ps.setString(15, comment.getRenderedContent());
+        ps.setObject(16, comment.getRenderVersion(), Types.INTEGER);
     }
 
     private Comment populateComment(ResultSet rs) throws SQLException {
@@ -270,9 +332,9 @@ public class CommentDaoImpl implements CommentDao {
         if (!rs.wasNull()) {
             User user = new User();
             user.setId(createdById);
-            user.setUserName(COL_CREATE_USERNAME);
-            user.setEmailAddress(COL_CREATE_EMAIL);
-            user.setWebsite(COL_CREATE_WEBSITE);
+            user.setUserName(rs.getString(COL_CREATE_USERNAME));
+            user.setEmailAddress(rs.getString(COL_CREATE_EMAIL));
+            user.setWebsite(rs.getString(COL_CREATE_WEBSITE));
             comment.setCreatedByUser(user);
         }
         comment.setCreationDate(rs.getTimestamp(COL_CREATE_DATE));
@@ -286,6 +348,8 @@ public class CommentDaoImpl implements CommentDao {
         comment.setReferrer(rs.getString(COL_REFERRER));
         comment.setIpAddress(rs.getString(COL_IP_ADDRESS));
         comment.setUserAgent(rs.getString(COL_USER_AGENT));
+        comment.setRenderedContent(rs.getString(COL_CONTENT_RENDERED));
+        comment.setRenderVersion(rs.getObject(COL_RENDER_VERSION, Integer.class));
         return comment;
     }
 
@@ -24,6 +24,10 @@ public class Article {
     private String content;
     private String summary;
     private boolean commentsEnabled = true;
+    private String renderedContent;
+    private String renderedSummary;
+    private Integer renderVersion;
+    private Integer commentCount;
 
     private List<Tag> tags = new ArrayList<>();
     private List<Comment> comments = new ArrayList<>();
@@ -52,6 +56,18 @@ public class Article {
         this.comments = comments;
     }
 
+    // visible comments; loaded as a count when the comments themselves aren't
+    public int getCommentCount() {
+        if (commentCount != null) {
+            return commentCount;
+        }
+        return (int) comments.stream().filter(Comment::isVisible).count();
+    }
+
+    public void setCommentCount(Integer commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public ContentType getContentType() {
         return contentType;
     }
@@ -132,6 +148,30 @@ public class Article {
         this.commentsEnabled = commentsEnabled;
     }
 
+    public String getRenderedContent() {
+        return renderedContent;
+    }
+
+    public void setRenderedContent(String renderedContent) {
+        this.renderedContent = renderedContent;
+    }
+
+    public String getRenderedSummary() {
+        return renderedSummary;
+    }
+
+    public void setRenderedSummary(String renderedSummary) {
+        this.renderedSummary = renderedSummary;
+    }
+
+    public Integer getRenderVersion() {
+        return renderVersion;
+    }
+
+    public void setRenderVersion(Integer renderVersion) {
+        this.renderVersion = renderVersion;
+    }
+
     public String getPermalinkUrl() {
         String perm = getPermalink();
         if (perm != null) {
@@ -148,7 +188,7 @@ public class Article {
             @Override
             protected boolean accept(Field f) {
                 String fName = f.getName();
-                if (fName.equals("content")) {
+                if (fName.equals("content") || fName.startsWith("rendered")) {
                     return false;
                 }
                 return super.accept(f);
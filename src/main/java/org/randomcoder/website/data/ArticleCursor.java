@@ -0,0 +1,36 @@
+package org.randomcoder.website.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// last article seen in a newest-first list, by creation date (to the microsecond, as stored) and then id
+public record ArticleCursor(Instant createDate, long articleId) {
+
+    public static ArticleCursor of(Article article) {
+        return new ArticleCursor(article.getCreationDate().toInstant(), article.getId());
+    }
+
+    // null if the value isn't a cursor
+    public static ArticleCursor parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int sep = value.indexOf('-', 1);
+        if (sep < 0) {
+            return null;
+        }
+        try {
+            long micros = Long.parseLong(value, 0, sep, 10);
+            long articleId = Long.parseLong(value, sep + 1, value.length(), 10);
+            return new ArticleCursor(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), articleId);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, createDate) + "-" + articleId;
+    }
+
+}
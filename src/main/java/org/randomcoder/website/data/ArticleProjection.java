@@ -0,0 +1,12 @@
+package org.randomcoder.website.data;
+
+// how much of each article to load
+public enum ArticleProjection {
+
+    // for lists: the body only when there's no summary, and a comment count in place of the comments
+    SUMMARY,
+
+    // the whole article and its comments
+    FULL
+
+}
@@ -19,6 +19,8 @@ public class Comment {
     private String referrer;
     private String ipAddress;
     private String userAgent;
+    private String renderedContent;
+    private Integer renderVersion;
 
     public Long getId() {
         return id;
@@ -140,4 +142,20 @@ public class Comment {
         this.userAgent = userAgent;
     }
 
+    public String getRenderedContent() {
+        return renderedContent;
+    }
+
+    public void setRenderedContent(String renderedContent) {
+        this.renderedContent = renderedContent;
+    }
+
+    public Integer getRenderVersion() {
+        return renderVersion;
+    }
+
+    public void setRenderVersion(Integer renderVersion) {
+        this.renderVersion = renderVersion;
+    }
+
 }
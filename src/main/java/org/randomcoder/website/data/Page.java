@@ -7,12 +7,18 @@ public class Page<T> {
     private final long offset;
     private final long totalSize;
     private final long pageSize;
+    private final String next;
 
     public Page(List<T> content, long offset, long totalSize, long pageSize) {
+        this(content, offset, totalSize, pageSize, null);
+    }
+
+    public Page(List<T> content, long offset, long totalSize, long pageSize, String next) {
         this.content = content;
         this.offset = offset;
         this.totalSize = totalSize;
         this.pageSize = pageSize;
+        this.next = next;
 
         if (offset < 0) {
             throw new IllegalArgumentException("offset must be >= 0");
@@ -29,6 +35,11 @@ public class Page<T> {
         return content;
     }
 
+    // same position and totals, with one new entry for each of this page's entries
+    public <R> Page<R> withContent(List<R> content) {
+        return new Page<>(content, offset, totalSize, pageSize, next);
+    }
+
     public boolean isFirst() {
         return offset == 0;
     }
@@ -43,6 +54,11 @@ public class Page<T> {
 
     public long getPageSize() { return pageSize; }
 
+    // cursor for the following page, or null if there isn't one or the list can't be continued by cursor
+    public String getNext() {
+        return next;
+    }
+
     public long getPageNumber() {
         long page = offset / pageSize;
         if (offset % pageSize != 0) {
@@ -0,0 +1,130 @@
+package org.randomcoder.website.feed;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.randomcoder.website.Config;
+import org.randomcoder.website.bo.AppInfoBusiness;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.FeedCache;
+import org.randomcoder.website.cache.FeedEntryKey;
+import org.randomcoder.website.data.Article;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+// writes feeds as StAX events; entries are cached by article revision, so each is rendered once for all feeds
+public abstract class AbstractStreamingFeedGenerator implements FeedGenerator {
+
+    // feed paging and archiving (RFC 5005)
+    protected static final String HISTORY_NS = "http://purl.org/syndication/history/1.0";
+    protected static final String HISTORY_NS_PREFIX = "fh";
+
+    private static final String ENCODING = "UTF-8";
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    @Inject
+    AppInfoBusiness appInfoBusiness;
+
+    @Inject
+    ContentBusiness contentBusiness;
+
+    @Inject
+    @Named(Config.FEED_BASE_URL)
+    URL baseUrl;
+
+    @Inject
+    FeedCache feedCache;
+
+    @Override
+    public String generateFeed(FeedInfo info) throws FeedException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeFeed(info, out);
+        } catch (IOException e) {
+            throw new FeedException("Unable to generate XML for feed", e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeFeed(FeedInfo info, OutputStream out) throws FeedException, IOException {
+        try {
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, ENCODING);
+            writer.writeStartDocument(ENCODING, "1.0");
+            writeHeader(info, writer);
+
+            // close the start tag of the enclosing element, so entries can be copied in directly after it
+            writer.writeCharacters("");
+            writer.flush();
+            for (Article article : info.getArticles()) {
+                out.write(entry(article));
+            }
+
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new FeedException("Unable to generate XML for feed", e);
+        }
+    }
+
+    // writes the feed's metadata, leaving the element entries belong in open
+    protected abstract void writeHeader(FeedInfo info, XMLStreamWriter writer) throws FeedException, XMLStreamException;
+
+    // entries are written to their own stream and shared between feeds, so may only depend on the article
+    protected abstract void writeEntry(XMLStreamWriter writer, Article article) throws FeedException, XMLStreamException;
+
+    private byte[] entry(Article article) throws FeedException, XMLStreamException {
+        if (article.getId() == null) {
+            return renderEntry(article);
+        }
+
+        Date revision = article.getModificationDate() == null ? article.getCreationDate() : article.getModificationDate();
+        var key = new FeedEntryKey(getContentType(), article.getId(), revision, article.getComments().size());
+
+        byte[] entry = feedCache.entries().getIfPresent(key);
+        if (entry == null) {
+            entry = renderEntry(article);
+            feedCache.entries().put(key, entry);
+        }
+        return entry;
+    }
+
+    private byte[] renderEntry(Article article) throws FeedException, XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, ENCODING);
+        writeEntry(writer, article);
+        writer.flush();
+        writer.close();
+        return out.toByteArray();
+    }
+
+    protected URL articleUrl(Article article) throws FeedException {
+        try {
+            return new URL(baseUrl, article.getPermalinkUrl());
+        } catch (MalformedURLException e) {
+            throw new FeedException("Unable to generate feed URL", e);
+        }
+    }
+
+    protected static boolean hasArchiveLinks(FeedInfo info) {
+        return info.getCurrentUrl() != null || info.getPrevArchiveUrl() != null || info.getNextArchiveUrl() != null;
+    }
+
+    protected static void writeTextElement(XMLStreamWriter writer, String name, String text) throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+}
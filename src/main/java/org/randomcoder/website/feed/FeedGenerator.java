@@ -1,9 +1,18 @@
 package org.randomcoder.website.feed;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 public interface FeedGenerator {
 
     String generateFeed(FeedInfo info) throws FeedException;
 
+    // UTF-8 encoded; the stream is left open
+    default void writeFeed(FeedInfo info, OutputStream out) throws FeedException, IOException {
+        out.write(generateFeed(info).getBytes(StandardCharsets.UTF_8));
+    }
+
     String getContentType();
 
 }
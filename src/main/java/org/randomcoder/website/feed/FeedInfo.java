@@ -14,6 +14,10 @@ public class FeedInfo {
     private URL altUrl;
     private String feedId;
     private List<Article> articles;
+    private boolean archive;
+    private URL currentUrl;
+    private URL prevArchiveUrl;
+    private URL nextArchiveUrl;
 
     public FeedInfo() {
         articles = new ArrayList<Article>();
@@ -77,4 +81,37 @@ public class FeedInfo {
         this.articles = articles;
     }
 
+    // an RFC 5005 archive document rather than the current feed
+    public boolean isArchive() {
+        return archive;
+    }
+
+    public void setArchive(boolean archive) {
+        this.archive = archive;
+    }
+
+    public URL getCurrentUrl() {
+        return currentUrl;
+    }
+
+    public void setCurrentUrl(URL currentUrl) {
+        this.currentUrl = currentUrl;
+    }
+
+    public URL getPrevArchiveUrl() {
+        return prevArchiveUrl;
+    }
+
+    public void setPrevArchiveUrl(URL prevArchiveUrl) {
+        this.prevArchiveUrl = prevArchiveUrl;
+    }
+
+    public URL getNextArchiveUrl() {
+        return nextArchiveUrl;
+    }
+
+    public void setNextArchiveUrl(URL nextArchiveUrl) {
+        this.nextArchiveUrl = nextArchiveUrl;
+    }
+
 }
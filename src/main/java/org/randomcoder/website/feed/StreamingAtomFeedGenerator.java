@@ -0,0 +1,256 @@
+package org.randomcoder.website.feed;
+
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Tag;
+import org.randomcoder.website.data.User;
+import org.randomcoder.website.validation.DataValidationUtils;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.net.URL;
+import java.text.DecimalFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+// Atom 1.0 feed generator which streams its output. Since the feed's updated date is only known once all entries
+// have been seen, it is taken from the articles up front.
+public class StreamingAtomFeedGenerator extends AbstractStreamingFeedGenerator {
+
+    private static final String ATOM_1_0_NS = "http://www.w3.org/2005/Atom";
+    private static final String THREAD_NS = "http://purl.org/syndication/thread/1.0";
+    private static final String THREAD_NS_PREFIX = "thr";
+    private static final String XHTML_NS = "http://www.w3.org/1999/xhtml";
+    private static final String XHTML_NS_PREFIX = "xhtml";
+    private static final String URI_PREFIX = "tag:randomcoder.org,2007:";
+
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx").withZone(ZoneId.systemDefault());
+
+    private static final XMLInputFactory INPUT_FACTORY = inputFactory();
+
+    @Override
+    public String getContentType() {
+        return "application/atom+xml";
+    }
+
+    @Override
+    protected void writeHeader(FeedInfo info, XMLStreamWriter writer) throws FeedException, XMLStreamException {
+        writer.writeStartElement("feed");
+        writer.writeDefaultNamespace(ATOM_1_0_NS);
+        writer.writeNamespace(THREAD_NS_PREFIX, THREAD_NS);
+        writer.writeNamespace(XHTML_NS_PREFIX, XHTML_NS);
+        if (info.isArchive()) {
+            writer.writeNamespace(HISTORY_NS_PREFIX, HISTORY_NS);
+        }
+
+        writeTextElement(writer, "title", info.getTitle());
+
+        String subtitle = info.getSubtitle();
+        if (subtitle != null) {
+            writeTextElement(writer, "subtitle", subtitle);
+        }
+
+        writer.writeStartElement("generator");
+        writer.writeAttribute("uri", "https://randomcoder.org/");
+        writer.writeAttribute("version", appInfoBusiness.getApplicationVersion());
+        writer.writeCharacters(appInfoBusiness.getApplicationName());
+        writer.writeEndElement();
+
+        writeLink(writer, "self", "application/atom+xml", info.getFeedUrl());
+
+        URL altUrl = info.getAltUrl();
+        if (altUrl != null) {
+            writeLink(writer, "alternate", "text/html", altUrl);
+        }
+
+        writeArchiveLinks(writer, info);
+
+        writeTextElement(writer, "id", URI_PREFIX + info.getFeedId());
+        writeTextElement(writer, "updated", formatDate(feedUpdated(info)));
+    }
+
+    @Override
+    protected void writeEntry(XMLStreamWriter writer, Article article) throws FeedException, XMLStreamException {
+        DecimalFormat df = new DecimalFormat("####################");
+
+        // declared on the feed element
+        writer.setDefaultNamespace(ATOM_1_0_NS);
+        writer.setPrefix(THREAD_NS_PREFIX, THREAD_NS);
+
+        writer.writeStartElement("entry");
+
+        writeTextElement(writer, "title", article.getTitle());
+
+        URL articleUrl = articleUrl(article);
+        writeLink(writer, "alternate", "text/html", articleUrl);
+
+        writer.writeEmptyElement("link");
+        writer.writeAttribute("rel", "replies");
+        writer.writeAttribute("type", "text/html");
+        writer.writeAttribute("href", articleUrl.toExternalForm() + "#comments");
+        writer.writeAttribute(THREAD_NS_PREFIX, THREAD_NS, "count", Integer.toString(article.getComments().size()));
+
+        writeTextElement(writer, "id", URI_PREFIX + "article-" + df.format(article.getId()));
+        writeTextElement(writer, "published", formatDate(article.getCreationDate()));
+
+        Date updated = article.getModificationDate();
+        if (updated != null) {
+            writeTextElement(writer, "updated", formatDate(updated));
+        }
+
+        writer.writeStartElement("author");
+        User createdBy = article.getCreatedByUser();
+        if (createdBy == null) {
+            writeTextElement(writer, "name", "anonymous");
+        } else {
+            writeTextElement(writer, "name", createdBy.getUserName());
+            String authorUrl = createdBy.getWebsite();
+            if (DataValidationUtils.isValidUrl(authorUrl)) {
+                writeTextElement(writer, "uri", authorUrl);
+            }
+        }
+        writer.writeEndElement();
+
+        for (Tag tag : article.getTags()) {
+            writer.writeEmptyElement("category");
+            writer.writeAttribute("term", tag.getName());
+            writer.writeAttribute("label", tag.getDisplayName());
+        }
+
+        if (article.getSummary() != null) {
+            String summary;
+            try {
+                summary = contentBusiness.formatArticleSummary(article, null);
+            } catch (Exception e) {
+                throw new FeedException("Unable to generate summary for article with id " + df.format(article.getId()), e);
+            }
+            writeXHTML(writer, "summary", articleUrl, summary);
+        }
+
+        String content;
+        try {
+            content = contentBusiness.formatArticleText(article, null);
+        } catch (Exception e) {
+            throw new FeedException("Unable to generate content for article with id " + df.format(article.getId()), e);
+        }
+        writeXHTML(writer, "content", articleUrl, content);
+
+        writer.writeEndElement();
+    }
+
+    private void writeArchiveLinks(XMLStreamWriter writer, FeedInfo info) throws XMLStreamException {
+        if (info.getCurrentUrl() != null) {
+            writeLink(writer, "current", getContentType(), info.getCurrentUrl());
+        }
+        if (info.getPrevArchiveUrl() != null) {
+            writeLink(writer, "prev-archive", getContentType(), info.getPrevArchiveUrl());
+        }
+        if (info.getNextArchiveUrl() != null) {
+            writeLink(writer, "next-archive", getContentType(), info.getNextArchiveUrl());
+        }
+        if (info.isArchive()) {
+            writer.writeEmptyElement(HISTORY_NS_PREFIX, "archive", HISTORY_NS);
+        }
+    }
+
+    private void writeLink(XMLStreamWriter writer, String rel, String type, URL href) throws XMLStreamException {
+        writer.writeEmptyElement("link");
+        writer.writeAttribute("rel", rel);
+        writer.writeAttribute("type", type);
+        writer.writeAttribute("href", href.toExternalForm());
+    }
+
+    private void writeXHTML(XMLStreamWriter writer, String name, URL articleUrl, String html)
+            throws XMLStreamException {
+        writer.writeStartElement(name);
+        writer.writeAttribute("type", "xhtml");
+        writer.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, "lang", "en-US");
+        writer.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, "base", articleUrl.toExternalForm());
+
+        writer.writeStartElement("div");
+        writer.writeDefaultNamespace(XHTML_NS);
+        copyChildren(writer, html);
+        writer.writeEndElement();
+
+        writer.writeEndElement();
+    }
+
+    // copies the children of the formatted wrapper element, dropping the wrapper itself
+    private void copyChildren(XMLStreamWriter writer, String html) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(html));
+        try {
+            int depth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (depth++ > 0) {
+                            writer.writeStartElement(reader.getLocalName());
+                            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                                String prefix = reader.getAttributePrefix(i);
+                                if (prefix == null || prefix.isEmpty()) {
+                                    writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                                } else {
+                                    writer.writeAttribute(prefix, reader.getAttributeNamespace(i),
+                                            reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                                }
+                            }
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (--depth > 0) {
+                            writer.writeEndElement();
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                        if (depth > 0) {
+                            writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                        if (depth > 0) {
+                            writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Date feedUpdated(FeedInfo info) {
+        Date feedUpdated = null;
+        for (Article article : info.getArticles()) {
+            Date published = article.getCreationDate();
+            if (feedUpdated == null || feedUpdated.before(published)) {
+                feedUpdated = published;
+            }
+            Date updated = article.getModificationDate();
+            if (updated != null && feedUpdated.before(updated)) {
+                feedUpdated = updated;
+            }
+        }
+        return feedUpdated == null ? new Date() : feedUpdated;
+    }
+
+    private static String formatDate(Date date) {
+        return DATE_FORMAT.format(date.toInstant());
+    }
+
+    private static XMLInputFactory inputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+}
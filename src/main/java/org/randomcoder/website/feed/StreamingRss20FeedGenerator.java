@@ -0,0 +1,125 @@
+package org.randomcoder.website.feed;
+
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Tag;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.net.URL;
+import java.text.DecimalFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+// RSS 2.0 feed generator which streams its output.
+public class StreamingRss20FeedGenerator extends AbstractStreamingFeedGenerator {
+
+    // RSS has no paging of its own, so RFC 5005 links are written as Atom links
+    private static final String ATOM_1_0_NS = "http://www.w3.org/2005/Atom";
+    private static final String ATOM_NS_PREFIX = "atom";
+
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss xxx").withZone(ZoneId.systemDefault());
+
+    @Override
+    public String getContentType() {
+        return "application/rss+xml";
+    }
+
+    @Override
+    protected void writeHeader(FeedInfo info, XMLStreamWriter writer) throws FeedException, XMLStreamException {
+        writer.writeStartElement("rss");
+        writer.writeAttribute("version", "2.0");
+        if (hasArchiveLinks(info)) {
+            writer.writeNamespace(ATOM_NS_PREFIX, ATOM_1_0_NS);
+        }
+        if (info.isArchive()) {
+            writer.writeNamespace(HISTORY_NS_PREFIX, HISTORY_NS);
+        }
+        writer.writeStartElement("channel");
+
+        writeTextElement(writer, "title", info.getTitle());
+        writeTextElement(writer, "link", info.getAltUrl().toExternalForm());
+
+        String subtitle = info.getSubtitle();
+        if (subtitle != null) {
+            writeTextElement(writer, "description", subtitle);
+        }
+
+        writeTextElement(writer, "docs", "http://blogs.law.harvard.edu/tech/rss");
+        writeTextElement(writer, "generator",
+                appInfoBusiness.getApplicationName() + " " + appInfoBusiness.getApplicationVersion());
+        writeTextElement(writer, "language", "en-us");
+        writeTextElement(writer, "pubDate", formatDate(feedUpdated(info)));
+
+        writeArchiveLink(writer, "current", info.getCurrentUrl());
+        writeArchiveLink(writer, "prev-archive", info.getPrevArchiveUrl());
+        writeArchiveLink(writer, "next-archive", info.getNextArchiveUrl());
+        if (info.isArchive()) {
+            writer.writeEmptyElement(HISTORY_NS_PREFIX, "archive", HISTORY_NS);
+        }
+    }
+
+    private void writeArchiveLink(XMLStreamWriter writer, String rel, URL href) throws XMLStreamException {
+        if (href == null) {
+            return;
+        }
+        writer.writeEmptyElement(ATOM_NS_PREFIX, "link", ATOM_1_0_NS);
+        writer.writeAttribute("rel", rel);
+        writer.writeAttribute("type", getContentType());
+        writer.writeAttribute("href", href.toExternalForm());
+    }
+
+    @Override
+    protected void writeEntry(XMLStreamWriter writer, Article article) throws FeedException, XMLStreamException {
+        DecimalFormat df = new DecimalFormat("####################");
+
+        writer.writeStartElement("item");
+
+        writeTextElement(writer, "title", article.getTitle());
+
+        URL articleUrl = articleUrl(article);
+        writeTextElement(writer, "link", articleUrl.toExternalForm());
+
+        writer.writeStartElement("guid");
+        if (article.getPermalink() != null) {
+            writer.writeAttribute("isPermaLink", "true");
+        }
+        writer.writeCharacters(articleUrl.toExternalForm());
+        writer.writeEndElement();
+
+        writeTextElement(writer, "pubDate", formatDate(article.getCreationDate()));
+
+        for (Tag tag : article.getTags()) {
+            writeTextElement(writer, "category", tag.getDisplayName());
+        }
+
+        String content;
+        try {
+            content = article.getSummary() == null
+                    ? contentBusiness.formatArticleText(article, articleUrl)
+                    : contentBusiness.formatArticleSummary(article, articleUrl);
+        } catch (Exception e) {
+            throw new FeedException("Unable to generate description for article with id " + df.format(article.getId()), e);
+        }
+        writeTextElement(writer, "description", content);
+
+        writer.writeEndElement();
+    }
+
+    private static Date feedUpdated(FeedInfo info) {
+        Date feedUpdated = null;
+        for (Article article : info.getArticles()) {
+            Date published = article.getCreationDate();
+            if (feedUpdated == null || feedUpdated.before(published)) {
+                feedUpdated = published;
+            }
+        }
+        return feedUpdated == null ? new Date() : feedUpdated;
+    }
+
+    private static String formatDate(Date date) {
+        return DATE_FORMAT.format(date.toInstant());
+    }
+
+}
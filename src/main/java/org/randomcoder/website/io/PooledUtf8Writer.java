@@ -0,0 +1,152 @@
+package org.randomcoder.website.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// Encodes UTF-8 straight onto a stream through per-thread buffers, which are handed back on close; close on the
+// creating thread. Closing flushes but leaves the stream open.
+public class PooledUtf8Writer extends Writer {
+
+    private static final int CHAR_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final OutputStream out;
+    private final Buffers buffers;
+    private final boolean pooled;
+    private boolean closed = false;
+
+    public PooledUtf8Writer(OutputStream out) {
+        this.out = out;
+        Buffers local = BUFFERS.get();
+        if (local.inUse) {
+            // nested writer on this thread; don't share
+            local = new Buffers();
+            pooled = false;
+        } else {
+            pooled = true;
+        }
+        local.inUse = true;
+        buffers = local;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (!buffers.chars.hasRemaining()) {
+            encode(false);
+        }
+        buffers.chars.put((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!buffers.chars.hasRemaining()) {
+                encode(false);
+            }
+            int count = Math.min(len, buffers.chars.remaining());
+            buffers.chars.put(cbuf, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (!buffers.chars.hasRemaining()) {
+                encode(false);
+            }
+            int count = Math.min(len, buffers.chars.remaining());
+            buffers.chars.put(str, off, off + count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encode(false);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            encode(true);
+            out.flush();
+        } finally {
+            closed = true;
+            buffers.release();
+        }
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        CharBuffer chars = buffers.chars;
+        ByteBuffer bytes = buffers.bytes;
+        CharsetEncoder encoder = buffers.encoder;
+
+        chars.flip();
+        while (encoder.encode(chars, bytes, endOfInput).isOverflow()) {
+            writeBytes();
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+                writeBytes();
+            }
+        }
+        writeBytes();
+
+        // an unpaired high surrogate stays behind until more input arrives
+        chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+        ByteBuffer bytes = buffers.bytes;
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed");
+        }
+    }
+
+    boolean isPooled() {
+        return pooled;
+    }
+
+    private static final class Buffers {
+        final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        final ByteBuffer bytes = ByteBuffer.allocate(CHAR_BUFFER_SIZE * 3);
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        boolean inUse = false;
+
+        void release() {
+            chars.clear();
+            bytes.clear();
+            encoder.reset();
+            inUse = false;
+        }
+    }
+
+}
@@ -20,12 +20,16 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.core.UriInfo;
 import org.randomcoder.website.Config;
 import org.randomcoder.website.bo.ArticleBusiness;
 import org.randomcoder.website.bo.TagBusiness;
+import org.randomcoder.website.cache.CachedPage;
+import org.randomcoder.website.cache.PageCache;
+import org.randomcoder.website.cache.PageKey;
 import org.randomcoder.website.command.ArticleAddCommand;
 import org.randomcoder.website.command.ArticleEditCommand;
 import org.randomcoder.website.command.CommentCommand;
@@ -33,11 +37,14 @@ import org.randomcoder.website.controller.ArticleController;
 import org.randomcoder.website.controller.ArticleTagListController;
 import org.randomcoder.website.controller.HomeController;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
 import org.randomcoder.website.data.ContentType;
 import org.randomcoder.website.data.Page;
 import org.randomcoder.website.data.Tag;
 import org.randomcoder.website.model.Roles;
 import org.randomcoder.website.thymeleaf.ThymeleafEntity;
+import org.randomcoder.website.thymeleaf.ThymeleafRenderer;
 import org.randomcoder.website.validation.ArticleAddValidator;
 import org.randomcoder.website.validation.ArticleEditValidator;
 import org.randomcoder.website.validation.CommentValidator;
@@ -46,10 +53,14 @@ import org.randomcoder.website.validation.ValidatorContext;
 import java.net.URI;
 import java.security.Principal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Path("")
 @PermitAll
@@ -93,6 +104,15 @@ public class ArticleResource {
     @Inject
     HttpServletRequest request;
 
+    @Inject
+    Request jaxrsRequest;
+
+    @Inject
+    PageCache pageCache;
+
+    @Inject
+    ThymeleafRenderer renderer;
+
     @Inject
     MetricRegistry metrics;
 
@@ -102,9 +122,9 @@ public class ArticleResource {
 
     @GET
     @Produces(MediaType.TEXT_HTML)
-    public ThymeleafEntity home() {
+    public Response home() {
         try (var ignored = metrics.timer("resources.home").time()) {
-            return new ThymeleafEntity("home").withVariables(homeController.buildModel(uriInfo));
+            return page(() -> new ThymeleafEntity("home").withVariables(homeController.buildModel(uriInfo)));
         }
     }
 
@@ -112,7 +132,8 @@ public class ArticleResource {
     @Produces(MediaType.APPLICATION_JSON)
     public Page<Article> articlesApi(
             @QueryParam("offset") @DefaultValue("0") long offset,
-            @QueryParam("length") @DefaultValue("10") long length) {
+            @QueryParam("length") @DefaultValue("10") long length,
+            @QueryParam("after") String after) {
         try (var ignored = metrics.timer("resources.api.home").time()) {
             if (length > articlePageSizeMax) {
                 length = articlePageSizeMax;
@@ -120,16 +141,18 @@ public class ArticleResource {
             }
 
             var cutoffDate = new Date(Instant.now().plus(31, ChronoUnit.DAYS).toEpochMilli());
-            return articleBusiness.listArticlesBeforeDate(cutoffDate, offset, length);
+            return articleBusiness.listArticlesBeforeDate(
+                    ArticleProjection.FULL, cutoffDate, parseCursor(after), offset, length);
         }
     }
 
     @GET
     @Path("/tags/{tagName}")
     @Produces(MediaType.TEXT_HTML)
-    public ThymeleafEntity articlesByTag() {
+    public Response articlesByTag() {
         try (var ignored = metrics.timer("resources.tags").time()) {
-            return new ThymeleafEntity("article-tag-list").withVariables(articleTagListController.buildModel(uriInfo));
+            return page(() -> new ThymeleafEntity("article-tag-list")
+                    .withVariables(articleTagListController.buildModel(uriInfo)));
         }
     }
 
@@ -139,7 +162,8 @@ public class ArticleResource {
     public Page<Article> articlesByTagApi(
             @PathParam("tagName") String tagName,
             @QueryParam("offset") @DefaultValue("0") long offset,
-            @QueryParam("length") @DefaultValue("10") long length) {
+            @QueryParam("length") @DefaultValue("10") long length,
+            @QueryParam("after") String after) {
 
         try (var ignored = metrics.timer("resources.api.tags").time()) {
             if (length > articlePageSizeMax) {
@@ -153,26 +177,74 @@ public class ArticleResource {
             }
 
             var cutoffDate = new Date(Instant.now().plus(31, ChronoUnit.DAYS).toEpochMilli());
-            return articleBusiness.listArticlesByTagBeforeDate(tag, cutoffDate, offset, length);
+            return articleBusiness.listArticlesByTagBeforeDate(
+                    ArticleProjection.FULL, tag, cutoffDate, parseCursor(after), offset, length);
         }
     }
 
+    // cursors only come from earlier pages, so a malformed one is a bad request
+    private static ArticleCursor parseCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        ArticleCursor cursor = ArticleCursor.parse(after);
+        if (cursor == null) {
+            throw new BadRequestException();
+        }
+        return cursor;
+    }
+
     @GET
     @Path("/articles/id/{id}")
     @Produces(MediaType.TEXT_HTML)
-    public ThymeleafEntity articleById(@PathParam("id") long id) {
+    public Response articleById(@PathParam("id") long id) {
         try (var ignored = metrics.timer("resources.article.id").time()) {
-            return articleInternal(articleBusiness.readArticle(id));
+            return page(() -> articleInternal(articleBusiness.readArticle(id)));
         }
     }
 
     @GET
     @Path("/articles/{permalink}")
     @Produces(MediaType.TEXT_HTML)
-    public ThymeleafEntity articleByPermalink(@PathParam("permalink") String permalink) {
+    public Response articleByPermalink(@PathParam("permalink") String permalink) {
         try (var ignored = metrics.timer("resources.article.permalink").time()) {
-            return articleInternal(articleBusiness.findArticleByPermalink(permalink));
+            return page(() -> articleInternal(articleBusiness.findArticleByPermalink(permalink)));
+        }
+    }
+
+    private Response page(Supplier<ThymeleafEntity> supplier) {
+        if (securityContext.getUserPrincipal() != null) {
+            return Response.ok(supplier.get()).build();
+        }
+
+        // anonymous visitors all see the same bytes for a given URI
+        var key = new PageKey(normalizedUri(), LocalDate.now());
+        CachedPage page = pageCache.pages().get(key, k ->
+                CachedPage.of(renderer.renderBytes(supplier.get(), securityContext)));
+
+        var builder = jaxrsRequest.evaluatePreconditions(page.tag());
+        if (builder != null) {
+            return builder.build();
+        }
+
+        return Response
+                .ok(page.content(), MediaType.TEXT_HTML_TYPE)
+                .tag(page.tag())
+                .build();
+    }
+
+    private String normalizedUri() {
+        var params = new ArrayList<String>();
+        for (var entry : uriInfo.getQueryParameters().entrySet()) {
+            for (String value : entry.getValue()) {
+                params.add(entry.getKey() + "=" + value);
+            }
+        }
+        if (params.isEmpty()) {
+            return uriInfo.getPath();
         }
+        Collections.sort(params);
+        return uriInfo.getPath() + "?" + String.join("&", params);
     }
 
     private ThymeleafEntity articleInternal(Article article) {
@@ -1,22 +1,45 @@
 package org.randomcoder.website.jaxrs.resources;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import org.apache.commons.lang3.StringUtils;
 import org.randomcoder.website.bo.ArticleBusiness;
+import org.randomcoder.website.bo.TagBusiness;
+import org.randomcoder.website.cache.CachedFeed;
+import org.randomcoder.website.cache.FeedCache;
 import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleProjection;
+import org.randomcoder.website.data.Comment;
+import org.randomcoder.website.data.Tag;
 import org.randomcoder.website.feed.FeedException;
 import org.randomcoder.website.feed.FeedGenerator;
 import org.randomcoder.website.feed.FeedInfo;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 @Singleton
 @Path("/feeds")
@@ -26,6 +49,8 @@ public class FeedResource {
     private static final String FEED_TITLE = "randomCoder";
     private static final String FEED_SUBTITLE = "// TODO build a better web";
 
+    private static final CacheControl ARCHIVE_CACHE_CONTROL = archiveCacheControl();
+
     private static final URL ATOM_ALL_URL;
     private static final URL RSS20_ALL_URL;
     private static final URL ALT_URL;
@@ -51,19 +76,57 @@ public class FeedResource {
     @Inject
     ArticleBusiness articleBusiness;
 
+    @Inject
+    TagBusiness tagBusiness;
+
+    @Inject
+    FeedCache feedCache;
+
+    @Inject
+    Request request;
+
     @GET
     @Path("atom/all")
     public Response atomAllFeed() throws Exception {
-        return generateFeed(atomFeedGenerator, "atom-all", ATOM_ALL_URL);
+        // keyed by month, since the link to the newest archive moves along with it
+        return generateFeed(feedCache.feeds(), atomFeedGenerator, "atom-all-" + YearMonth.now(),
+                () -> getFeed("atom-all", "atom", ATOM_ALL_URL), null);
     }
 
     @GET
     @Path("rss20/all")
     public Response rss20AllFeed() throws Exception {
-        return generateFeed(rss20FeedGenerator, "rss20-all", RSS20_ALL_URL);
+        return generateFeed(feedCache.feeds(), rss20FeedGenerator, "rss20-all-" + YearMonth.now(),
+                () -> getFeed("rss20-all", "rss20", RSS20_ALL_URL), null);
     }
 
-    private FeedInfo getFeed(String feedId, URL feedUrl) {
+    @GET
+    @Path("atom/archive/{year: \\d{4}}/{month: \\d{2}}")
+    public Response atomArchiveFeed(@PathParam("year") int year, @PathParam("month") int month) throws Exception {
+        return archiveFeed(atomFeedGenerator, "atom-all", "atom", ATOM_ALL_URL, year, month);
+    }
+
+    @GET
+    @Path("rss20/archive/{year: \\d{4}}/{month: \\d{2}}")
+    public Response rss20ArchiveFeed(@PathParam("year") int year, @PathParam("month") int month) throws Exception {
+        return archiveFeed(rss20FeedGenerator, "rss20-all", "rss20", RSS20_ALL_URL, year, month);
+    }
+
+    @GET
+    @Path("atom/tags/{tagName}")
+    public Response atomTagFeed(@PathParam("tagName") String tagName) throws Exception {
+        String feedId = "atom-tag-" + normalizeTagName(tagName);
+        return generateFeed(feedCache.feeds(), atomFeedGenerator, feedId, () -> getTagFeed(feedId, "atom", tagName), null);
+    }
+
+    @GET
+    @Path("rss20/tags/{tagName}")
+    public Response rss20TagFeed(@PathParam("tagName") String tagName) throws Exception {
+        String feedId = "rss20-tag-" + normalizeTagName(tagName);
+        return generateFeed(feedCache.feeds(), rss20FeedGenerator, feedId, () -> getTagFeed(feedId, "rss20", tagName), null);
+    }
+
+    private FeedInfo getFeed(String feedId, String feedType, URL feedUrl) {
         List<Article> articles = articleBusiness.listRecentArticles(ARTICLE_LIMIT);
 
         FeedInfo feedInfo = new FeedInfo();
@@ -75,21 +138,187 @@ public class FeedResource {
         feedInfo.setSubtitle(FEED_SUBTITLE);
         feedInfo.setArticles(articles);
 
+        YearMonth newestArchive = newestArchiveMonth();
+        if (newestArchive != null) {
+            feedInfo.setPrevArchiveUrl(archiveUrl(feedType, newestArchive));
+        }
+
         return feedInfo;
     }
 
-    private Response generateFeed(FeedGenerator feedGenerator, String feedId, URL feedUrl) throws FeedException, IOException {
-        // get feed data
-        FeedInfo feedInfo = getFeed(feedId, feedUrl);
+    private Response archiveFeed(
+            FeedGenerator feedGenerator, String feedId, String feedType, URL currentUrl, int year, int month)
+            throws FeedException, IOException {
 
-        // generate feed
-        String feed = feedGenerator.generateFeed(feedInfo);
+        YearMonth archiveMonth;
+        try {
+            archiveMonth = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new NotFoundException();
+        }
+
+        if (!archiveMonth.isBefore(YearMonth.now())) {
+            throw new NotFoundException();
+        }
+
+        // the newest archive gains a next-archive link once another month is archived, so is keyed by the current month
+        if (archiveMonth.equals(newestArchiveMonth())) {
+            return generateFeed(feedCache.archives(), feedGenerator, feedType + "-archive-" + archiveMonth + "-" + YearMonth.now(),
+                    () -> getArchiveFeed(feedId, feedType, currentUrl, archiveMonth), null);
+        }
+
+        return generateFeed(feedCache.archives(), feedGenerator, feedType + "-archive-" + archiveMonth,
+                () -> getArchiveFeed(feedId, feedType, currentUrl, archiveMonth), ARCHIVE_CACHE_CONTROL);
+    }
+
+    private FeedInfo getArchiveFeed(String feedId, String feedType, URL currentUrl, YearMonth archiveMonth) {
+        List<YearMonth> months = articleBusiness.listArchiveMonths();
+        int index = months.indexOf(archiveMonth);
+        if (index < 0) {
+            throw new NotFoundException();
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        Date startDate = Date.from(archiveMonth.atDay(1).atStartOfDay(zone).toInstant());
+        Date endDate = Date.from(archiveMonth.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+        List<Article> articles = articleBusiness.listArticlesBetweenDates(startDate, endDate);
 
-        // output feed
-        byte[] data = feed.getBytes(StandardCharsets.UTF_8);
+        FeedInfo feedInfo = new FeedInfo();
+
+        feedInfo.setFeedUrl(archiveUrl(feedType, archiveMonth));
+        feedInfo.setAltUrl(ALT_URL);
+        feedInfo.setFeedId(feedId);
+        feedInfo.setTitle(FEED_TITLE);
+        feedInfo.setSubtitle(FEED_SUBTITLE);
+        feedInfo.setArticles(articles);
+        feedInfo.setArchive(true);
+        feedInfo.setCurrentUrl(currentUrl);
+
+        // months are newest first
+        if (index + 1 < months.size()) {
+            feedInfo.setPrevArchiveUrl(archiveUrl(feedType, months.get(index + 1)));
+        }
+        if (index > 0) {
+            feedInfo.setNextArchiveUrl(archiveUrl(feedType, months.get(index - 1)));
+        }
 
+        return feedInfo;
+    }
+
+    // month of the newest article published before the current month
+    private YearMonth newestArchiveMonth() {
+        ZoneId zone = ZoneId.systemDefault();
+        Date monthStart = Date.from(YearMonth.now().atDay(1).atStartOfDay(zone).toInstant());
+        List<Article> articles = articleBusiness
+                .listArticlesBeforeDate(ArticleProjection.SUMMARY, monthStart, null, 0, 1)
+                .getContent();
+        if (articles.isEmpty()) {
+            return null;
+        }
+        return YearMonth.from(articles.get(0).getCreationDate().toInstant().atZone(zone));
+    }
+
+    private static URL archiveUrl(String feedType, YearMonth month) {
+        return resolve(String.format("/feeds/%s/archive/%04d/%02d", feedType, month.getYear(), month.getMonthValue()));
+    }
+
+    private FeedInfo getTagFeed(String feedId, String feedType, String tagName) {
+        Tag tag = tagBusiness.findTagByName(normalizeTagName(tagName));
+        if (tag == null) {
+            throw new NotFoundException();
+        }
+
+        // a cutoff in the future shares the cached list with every other request for the latest articles
+        var cutoffDate = new Date(Instant.now().plus(31, ChronoUnit.DAYS).toEpochMilli());
+        List<Article> articles = articleBusiness
+                .listArticlesByTagBeforeDate(tag, cutoffDate, 0, ARTICLE_LIMIT)
+                .getContent();
+
+        String encodedName = URLEncoder.encode(tag.getName(), StandardCharsets.UTF_8);
+
+        FeedInfo feedInfo = new FeedInfo();
+
+        feedInfo.setFeedUrl(resolve("/feeds/" + feedType + "/tags/" + encodedName));
+        feedInfo.setAltUrl(resolve("/tags/" + encodedName));
+        feedInfo.setFeedId(feedId);
+        feedInfo.setTitle(FEED_TITLE + ": " + tag.getDisplayName());
+        feedInfo.setSubtitle(FEED_SUBTITLE);
+        feedInfo.setArticles(articles);
+
+        return feedInfo;
+    }
+
+    private Response generateFeed(
+            Cache<String, CachedFeed> cache, FeedGenerator feedGenerator, String cacheKey,
+            Supplier<FeedInfo> feedInfoSupplier, CacheControl cacheControl) throws FeedException, IOException {
+
+        CachedFeed feed = cache.getIfPresent(cacheKey);
+        if (feed == null) {
+            // get feed data
+            FeedInfo feedInfo = feedInfoSupplier.get();
+
+            // generate feed
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            feedGenerator.writeFeed(feedInfo, out);
+
+            feed = CachedFeed.of(lastModified(feedInfo.getArticles()), out.toByteArray());
+            cache.put(cacheKey, feed);
+        }
+
+        var builder = feed.lastModified() == null
+                ? request.evaluatePreconditions(feed.tag())
+                : request.evaluatePreconditions(feed.lastModified(), feed.tag());
+        if (builder != null) {
+            return builder
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return Response
+                .ok(feed.content(), feedGenerator.getContentType())
+                .cacheControl(cacheControl)
+                .tag(feed.tag())
+                .lastModified(feed.lastModified())
+                .build();
+    }
+
+    private static CacheControl archiveCacheControl() {
+        // older archives rarely change, but entries still carry comment counts and edits, so clients revalidate by
+        // ETag once this expires rather than keeping them forever
+        var cc = new CacheControl();
+        cc.setNoTransform(false);
+        cc.setMaxAge(24 * 60 * 60);
+        cc.getCacheExtension().put("public", null);
+        return cc;
+    }
+
+    private static String normalizeTagName(String tagName) {
+        return StringUtils.trimToEmpty(tagName).toLowerCase(Locale.US);
+    }
+
+    private static URL resolve(String path) {
+        try {
+            return new URL(ALT_URL, path);
+        } catch (MalformedURLException e) {
+            throw new InternalServerErrorException(e);
+        }
+    }
+
+    // newest article or comment date, truncated to whole seconds as in HTTP dates
+    private static Date lastModified(List<Article> articles) {
+        long newest = Long.MIN_VALUE;
+        for (Article article : articles) {
+            newest = Math.max(newest, time(article.getCreationDate()));
+            newest = Math.max(newest, time(article.getModificationDate()));
+            for (Comment comment : article.getComments()) {
+                newest = Math.max(newest, time(comment.getCreationDate()));
+            }
+        }
+        return newest == Long.MIN_VALUE ? null : new Date(newest - Math.floorMod(newest, 1000L));
+    }
 
-        return Response.ok(data, feedGenerator.getContentType()).build();
+    private static long time(Date date) {
+        return date == null ? Long.MIN_VALUE : date.getTime();
     }
 
 }
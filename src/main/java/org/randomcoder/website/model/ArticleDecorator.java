@@ -1,8 +1,7 @@
 package org.randomcoder.website.model;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.randomcoder.website.contentfilter.ContentFilter;
-import org.randomcoder.website.contentfilter.ContentUtils;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.AvatarCache;
 import org.randomcoder.website.data.Article;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.User;
@@ -13,19 +12,20 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 public class ArticleDecorator {
     private final Article article;
-    private final ContentFilter filter;
+    private final ContentBusiness contentBusiness;
+    private final AvatarCache avatarCache;
     private final List<CommentDecorator> comments;
 
-    public ArticleDecorator(Article article, ContentFilter filter) {
+    public ArticleDecorator(Article article, ContentBusiness contentBusiness, AvatarCache avatarCache) {
         this.article = article;
-        this.filter = filter;
+        this.contentBusiness = contentBusiness;
+        this.avatarCache = avatarCache;
         comments = new ArrayList<>(article.getComments().size());
         for (Comment comment : article.getComments()) {
-            comments.add(new CommentDecorator(comment, filter));
+            comments.add(new CommentDecorator(comment, contentBusiness, avatarCache));
         }
     }
 
@@ -34,15 +34,7 @@ public class ArticleDecorator {
         if (createdBy == null) {
             return null;
         }
-        String emailAddress = createdBy.getEmailAddress();
-        if (emailAddress == null) {
-            return null;
-        }
-        emailAddress = emailAddress.trim().toLowerCase(Locale.US);
-
-        String hash = DigestUtils.md5Hex(emailAddress);
-
-        return "https://secure.gravatar.com/avatar/" + hash + "?s=40&d=mm";
+        return AvatarUtils.avatarImageUrl(avatarCache, createdBy.getEmailAddress());
     }
 
     public Article getArticle() {
@@ -58,16 +50,17 @@ public class ArticleDecorator {
     }
 
     public String getFormattedText() throws TransformerException, IOException, SAXException {
-        return ContentUtils.formatText(article.getContent(), null, article.getContentType(), filter);
+        return contentBusiness.formatArticleText(article, null);
     }
 
     public String getCommentCountText() {
-        if (comments.size() == 1) {
+        int count = article.getCommentCount();
+        if (count == 1) {
             return "1 comment";
         }
 
-        if (comments.size() > 1) {
-            return new DecimalFormat("##########").format(comments.size())
+        if (count > 1) {
+            return new DecimalFormat("##########").format(count)
                     + " comments";
         }
 
@@ -79,11 +72,7 @@ public class ArticleDecorator {
     }
 
     public String getFormattedSummary() throws TransformerException, IOException, SAXException {
-        String summary = article.getSummary();
-        if (summary == null) {
-            return null;
-        }
-        return ContentUtils.formatText(summary, null, article.getContentType(), filter);
+        return contentBusiness.formatArticleSummary(article, null);
     }
 
 }
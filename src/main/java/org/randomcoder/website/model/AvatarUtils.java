@@ -0,0 +1,29 @@
+package org.randomcoder.website.model;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.randomcoder.website.cache.AvatarCache;
+
+import java.util.Locale;
+
+// gravatar image urls, memoized per email address so each one is only normalized and hashed once
+public final class AvatarUtils {
+
+    private static final String AVATAR_PREFIX = "https://secure.gravatar.com/avatar/";
+    private static final String AVATAR_SUFFIX = "?s=40&d=mm";
+
+    private AvatarUtils() {
+    }
+
+    public static String avatarImageUrl(AvatarCache avatarCache, String emailAddress) {
+        if (emailAddress == null) {
+            return null;
+        }
+        return avatarCache.avatarUrls().get(emailAddress, AvatarUtils::computeAvatarImageUrl);
+    }
+
+    static String computeAvatarImageUrl(String emailAddress) {
+        String hash = DigestUtils.md5Hex(emailAddress.trim().toLowerCase(Locale.US));
+        return AVATAR_PREFIX + hash + AVATAR_SUFFIX;
+    }
+
+}
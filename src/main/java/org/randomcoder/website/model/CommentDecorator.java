@@ -1,24 +1,24 @@
 package org.randomcoder.website.model;
 
-import org.apache.commons.codec.digest.DigestUtils;
-import org.randomcoder.website.contentfilter.ContentFilter;
-import org.randomcoder.website.contentfilter.ContentUtils;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.AvatarCache;
 import org.randomcoder.website.data.Comment;
 import org.randomcoder.website.data.User;
 import org.xml.sax.SAXException;
 
 import javax.xml.transform.TransformerException;
 import java.io.IOException;
-import java.util.Locale;
 
 public class CommentDecorator {
 
     private final Comment comment;
-    private final ContentFilter filter;
+    private final ContentBusiness contentBusiness;
+    private final AvatarCache avatarCache;
 
-    public CommentDecorator(Comment comment, ContentFilter filter) {
+    public CommentDecorator(Comment comment, ContentBusiness contentBusiness, AvatarCache avatarCache) {
         this.comment = comment;
-        this.filter = filter;
+        this.contentBusiness = contentBusiness;
+        this.avatarCache = avatarCache;
     }
 
     public Comment getComment() {
@@ -33,18 +33,11 @@ public class CommentDecorator {
         } else {
             emailAddress = createdBy.getEmailAddress();
         }
-        if (emailAddress == null) {
-            return null;
-        }
-        emailAddress = emailAddress.trim().toLowerCase(Locale.US);
-
-        String hash = DigestUtils.md5Hex(emailAddress);
-
-        return "https://secure.gravatar.com/avatar/" + hash + "?s=40&d=mm";
+        return AvatarUtils.avatarImageUrl(avatarCache, emailAddress);
     }
 
     public String getFormattedText() throws TransformerException, IOException, SAXException {
-        return ContentUtils.formatText(comment.getContent(), null, comment.getContentType(), filter);
+        return contentBusiness.formatCommentText(comment, null);
     }
 
     public String getAuthor() {
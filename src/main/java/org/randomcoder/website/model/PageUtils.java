@@ -6,6 +6,7 @@ public final class PageUtils {
 
     public static final String PARAM_PAGE_NUMBER = "page.page";
     public static final String PARAM_PAGE_SIZE = "page.size";
+    public static final String PARAM_PAGE_AFTER = "page.after";
 
     private PageUtils() {}
 
@@ -18,7 +18,8 @@ import java.util.Set;
 
 public class PagerInfo<T> {
 
-    private static final Set<String> REMOVED_PARAMS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("page.page", "page.size")));
+    private static final Set<String> REMOVED_PARAMS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            PageUtils.PARAM_PAGE_NUMBER, PageUtils.PARAM_PAGE_SIZE, PageUtils.PARAM_PAGE_AFTER)));
 
     private final List<PageLink> links;
 
@@ -51,8 +52,12 @@ public class PagerInfo<T> {
         }
 
         if (!page.isLast()) {
-            // generate link to next page
-            String link = makeLink(urlWithParams(uriInfo, REMOVED_PARAMS, pageParams(page.getPageNumber() + 1, size)));
+            // generate link to next page, continuing from the end of this one where possible
+            Map<String, String> params = pageParams(page.getPageNumber() + 1, size);
+            if (page.getNext() != null) {
+                params.put(PageUtils.PARAM_PAGE_AFTER, page.getNext());
+            }
+            String link = makeLink(urlWithParams(uriInfo, REMOVED_PARAMS, params));
             String text = "&#187;";
             links.add(new PageLink(text, link));
         }
@@ -60,8 +65,8 @@ public class PagerInfo<T> {
 
     private static Map<String, String> pageParams(long pageNumber, long pageSize) {
         Map<String, String> map = new HashMap<>();
-        map.put("page.page", Long.toString(pageNumber));
-        map.put("page.size", Long.toString(pageSize));
+        map.put(PageUtils.PARAM_PAGE_NUMBER, Long.toString(pageNumber));
+        map.put(PageUtils.PARAM_PAGE_SIZE, Long.toString(pageSize));
         return map;
     }
 
@@ -0,0 +1,50 @@
+package org.randomcoder.website.thymeleaf;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.core.SecurityContext;
+import org.randomcoder.website.io.PooledUtf8Writer;
+import org.thymeleaf.ITemplateEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+@Singleton
+public class ThymeleafRenderer {
+
+    @Inject
+    ITemplateEngine engine;
+
+    @Inject
+    MetricRegistry metrics;
+
+    public void render(ThymeleafEntity entity, SecurityContext securityContext, OutputStream out) throws IOException {
+        try (var unused = metrics.timer("thymeleaf.render." + entity.getView()).time();
+             var writer = new PooledUtf8Writer(out)) {
+            engine.process(entity.getView(), new ThymeleafContext(entity, securityContext), writer);
+        }
+    }
+
+    public byte[] renderBytes(ThymeleafEntity entity, SecurityContext securityContext) {
+        var out = new ByteArrayOutputStream(32768);
+        try {
+            render(entity, securityContext, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public String renderString(ThymeleafEntity entity, SecurityContext securityContext) {
+        var writer = new StringWriter(4096);
+        try (var unused = metrics.timer("thymeleaf.render." + entity.getView()).time()) {
+            engine.process(entity.getView(), new ThymeleafContext(entity, securityContext), writer);
+        }
+        return writer.toString();
+    }
+
+}
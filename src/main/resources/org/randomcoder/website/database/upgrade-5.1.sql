@@ -0,0 +1,6 @@
+ALTER TABLE articles ADD COLUMN content_rendered TEXT NULL;
+ALTER TABLE articles ADD COLUMN summary_rendered TEXT NULL;
+ALTER TABLE articles ADD COLUMN render_version INTEGER NULL;
+
+ALTER TABLE comments ADD COLUMN content_rendered TEXT NULL;
+ALTER TABLE comments ADD COLUMN render_version INTEGER NULL;
@@ -0,0 +1 @@
+CREATE INDEX articles_create_date_article_id_idx ON articles (create_date, article_id);
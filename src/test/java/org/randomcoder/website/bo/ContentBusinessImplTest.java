@@ -0,0 +1,167 @@
+package org.randomcoder.website.bo;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.cache.ContentCacheImpl;
+import org.randomcoder.website.contentfilter.ContentUtils;
+import org.randomcoder.website.contentfilter.TextFilter;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Comment;
+import org.randomcoder.website.data.ContentType;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContentBusinessImplTest {
+
+    private ContentBusinessImpl cb;
+    private ContentCacheImpl cache;
+
+    @Before
+    public void setUp() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        cache = new ContentCacheImpl(metrics);
+        cb = new ContentBusinessImpl();
+        cb.contentFilter = new TextFilter();
+        cb.contentCache = cache;
+        cb.metrics = metrics;
+    }
+
+    @After
+    public void tearDown() {
+        cb.stop();
+        cb = null;
+        cache = null;
+    }
+
+    private Article article(Long id, String content, Date modified) {
+        Article article = new Article();
+        article.setId(id);
+        article.setContentType(ContentType.TEXT);
+        article.setContent(content);
+        article.setCreationDate(new Date(1000L));
+        article.setModificationDate(modified);
+        return article;
+    }
+
+    @Test
+    public void testFormatArticleTextCached() throws Exception {
+        Article article = article(1L, "Line 1\nLine 2", null);
+        String first = cb.formatArticleText(article, null);
+        String second = cb.formatArticleText(article, null);
+        assertTrue(first.contains("Line 1"));
+        assertSame(first, second);
+        assertEquals(1L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testFormatArticleTextModified() throws Exception {
+        String first = cb.formatArticleText(article(1L, "Original", null), null);
+        String second = cb.formatArticleText(article(1L, "Edited", new Date(2000L)), null);
+        assertTrue(first.contains("Original"));
+        assertTrue(second.contains("Edited"));
+        assertEquals(2L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testFormatArticleTextUnsaved() throws Exception {
+        Article article = article(null, "Preview", null);
+        String first = cb.formatArticleText(article, null);
+        String second = cb.formatArticleText(article, null);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(0L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testFormatArticleSummaryNull() throws Exception {
+        assertNull(cb.formatArticleSummary(article(1L, "Content", null), null));
+    }
+
+    @Test
+    public void testPrerenderArticlesDisabled() throws Exception {
+        cb.start();
+        cb.prerenderArticles(List.of(article(1L, "One", null), article(2L, "Two", null)));
+        assertEquals(0L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testPrerenderArticles() throws Exception {
+        cb.parallelRenderThreads = 2;
+        cb.parallelRenderTimeout = 10_000;
+        cb.start();
+
+        Article first = article(1L, "One", null);
+        first.setSummary("Summary");
+        Comment comment = new Comment();
+        comment.setId(3L);
+        comment.setContentType(ContentType.TEXT);
+        comment.setContent("Comment");
+        comment.setCreationDate(new Date(1000L));
+        first.getComments().add(comment);
+        Article second = article(2L, "Two", null);
+        second.setRenderVersion(ContentUtils.RENDER_VERSION);
+        second.setRenderedContent("<p>Two</p>");
+
+        cb.prerenderArticles(List.of(first, second));
+        assertEquals(3L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testFormatCommentTextCached() throws Exception {
+        Comment comment = new Comment();
+        comment.setId(5L);
+        comment.setContentType(ContentType.TEXT);
+        comment.setContent("A comment");
+        comment.setCreationDate(new Date(1000L));
+        String first = cb.formatCommentText(comment, null);
+        assertTrue(first.contains("A comment"));
+        assertSame(first, cb.formatCommentText(comment, null));
+    }
+
+    @Test
+    public void testFormatArticleTextRendered() throws Exception {
+        Article article = article(1L, "Content", null);
+        article.setRenderedContent("<div>stored</div>");
+        article.setRenderVersion(ContentUtils.RENDER_VERSION);
+        assertEquals("<div>stored</div>", cb.formatArticleText(article, null));
+        assertEquals(0L, cache.formattedContent().estimatedSize());
+    }
+
+    @Test
+    public void testFormatArticleTextRenderedStale() throws Exception {
+        Article article = article(1L, "Content", null);
+        article.setRenderedContent("<div>stored</div>");
+        article.setRenderVersion(ContentUtils.RENDER_VERSION - 1);
+        assertTrue(cb.formatArticleText(article, null).contains("Content"));
+    }
+
+    @Test
+    public void testRenderArticle() throws Exception {
+        Article article = article(1L, "Content", null);
+        article.setSummary("Summary");
+        cb.renderArticle(article);
+        assertEquals(Integer.valueOf(ContentUtils.RENDER_VERSION), article.getRenderVersion());
+        assertTrue(article.getRenderedContent().contains("Content"));
+        assertTrue(article.getRenderedSummary().contains("Summary"));
+    }
+
+    @Test
+    public void testRenderComment() throws Exception {
+        Comment comment = new Comment();
+        comment.setContentType(ContentType.TEXT);
+        comment.setContent("A comment");
+        cb.renderComment(comment);
+        assertEquals(Integer.valueOf(ContentUtils.RENDER_VERSION), comment.getRenderVersion());
+        assertTrue(comment.getRenderedContent().contains("A comment"));
+    }
+
+}
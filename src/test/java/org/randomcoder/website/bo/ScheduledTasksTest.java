@@ -12,21 +12,26 @@ public class ScheduledTasksTest {
 
     private IMocksControl control;
     private ArticleBusiness ab;
+    private ContentBusiness cb;
     private ScheduledTasks st;
 
     @Before
     public void setUp() {
         control = createControl();
         ab = control.createMock(ArticleBusiness.class);
+        cb = control.createMock(ContentBusiness.class);
         st = new ScheduledTasks();
         st.moderationBatchSize = 3;
+        st.renderBatchSize = 7;
         st.articleBusiness = ab;
+        st.contentBusiness = cb;
     }
 
     @After
     public void tearDown() {
         st = null;
         ab = null;
+        cb = null;
         control = null;
 
     }
@@ -50,4 +55,23 @@ public class ScheduledTasksTest {
         control.verify();
     }
 
+    @Test
+    public void testRenderStaleContent() throws Exception {
+        expect(cb.renderStaleContent(7)).andReturn(true);
+        expect(cb.renderStaleContent(7)).andReturn(false);
+        control.replay();
+
+        st.renderStaleContent();
+        control.verify();
+    }
+
+    @Test
+    public void testRenderStaleContentError() throws Exception {
+        expect(cb.renderStaleContent(7)).andThrow(new RuntimeException("test"));
+        control.replay();
+
+        st.renderStaleContent();
+        control.verify();
+    }
+
 }
@@ -0,0 +1,281 @@
+package org.randomcoder.website.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleProjection;
+import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ArticleCacheImplTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final YearMonth OLD_MONTH = YearMonth.of(2007, 3);
+
+    private MetricRegistry metrics;
+    private ArticleCacheImpl cache;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        cache = new ArticleCacheImpl(metrics,
+                new PageCacheImpl(metrics), new FragmentCacheImpl(metrics), new FeedCacheImpl(metrics));
+    }
+
+    @Test
+    public void testResolveLoadsOnlyMissing() {
+        Article cached = article(1L, monthStart(OLD_MONTH));
+        Article missing = article(2L, monthStart(OLD_MONTH));
+        assertEquals(List.of(1L), put(ArticleProjection.SUMMARY, List.of(cached)));
+
+        List<Set<Long>> requested = new ArrayList<>();
+        List<Article> articles = cache.resolveArticles(ArticleProjection.SUMMARY, List.of(2L, 1L), ids -> {
+            requested.add(ids);
+            return List.of(missing);
+        });
+
+        assertEquals(List.of(Set.of(2L)), requested);
+        assertSame(missing, articles.get(0));
+        assertSame(cached, articles.get(1));
+        assertSame(missing, cache.articles().getIfPresent(new ArticleKey(ArticleProjection.SUMMARY, 2L)));
+    }
+
+    @Test
+    public void testPutAfterInvalidation() {
+        Article loaded = article(1L, monthStart(OLD_MONTH));
+        long generation = cache.generation();
+
+        // the article is saved and invalidated while a list holding the old version is being loaded
+        cache.invalidate(ArticleChange.updated(article(1L, monthStart(OLD_MONTH)), Set.of()));
+
+        assertEquals(List.of(1L), cache.putArticles(ArticleProjection.FULL, List.of(loaded), generation));
+        assertNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.FULL, 1L)));
+
+        put(ArticleProjection.FULL, List.of(loaded));
+        assertSame(loaded, cache.articles().getIfPresent(new ArticleKey(ArticleProjection.FULL, 1L)));
+    }
+
+    @Test
+    public void testResolveDuringInvalidation() {
+        Article loaded = article(1L, monthStart(OLD_MONTH));
+
+        List<Article> articles = cache.resolveArticles(ArticleProjection.FULL, List.of(1L), ids -> {
+            cache.invalidate(ArticleChange.updated(article(1L, monthStart(OLD_MONTH)), Set.of()));
+            return List.of(loaded);
+        });
+
+        assertEquals(List.of(loaded), articles);
+        assertNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.FULL, 1L)));
+    }
+
+    @Test
+    public void testResolveDeleted() {
+        assertNull(cache.resolveArticles(ArticleProjection.FULL, List.of(1L), ids -> List.of()));
+    }
+
+    @Test
+    public void testCreateKeepsEarlierMonths() {
+        var latest = new ArticlesBeforeDateRangeKey(ArticleProjection.SUMMARY, CutoffDates.LATEST, null, 0, 10);
+        var old = new ArticlesBeforeDateRangeKey(ArticleProjection.SUMMARY, monthStart(OLD_MONTH.plusMonths(1)), null, 0, 10);
+        cache.articlesBeforeDateRange().put(latest, page());
+        cache.articlesBeforeDateRange().put(old, page());
+        cache.daysWithArticles().put(OLD_MONTH, 1);
+
+        int count = cache.invalidate(ArticleChange.created(article(1L, new Date(), 1L)));
+
+        assertEquals(1, count);
+        assertNull(cache.articlesBeforeDateRange().getIfPresent(latest));
+        assertNotNull(cache.articlesBeforeDateRange().getIfPresent(old));
+        assertNotNull(cache.daysWithArticles().getIfPresent(OLD_MONTH));
+        assertEquals(1, metrics.histogram("cache.articles.invalidated.created").getCount());
+    }
+
+    @Test
+    public void testCreateNewerThanRecentList() {
+        put(ArticleProjection.FULL, List.of(
+                article(1L, monthStart(OLD_MONTH.plusMonths(1))), article(2L, monthStart(OLD_MONTH))));
+        cache.articlesRecentLimit().put(2, List.of(1L, 2L));
+
+        cache.invalidate(ArticleChange.created(article(3L, new Date())));
+
+        assertNull(cache.articlesRecentLimit().getIfPresent(2));
+    }
+
+    @Test
+    public void testCreateOlderThanRecentList() {
+        put(ArticleProjection.FULL, List.of(
+                article(1L, monthStart(OLD_MONTH.plusMonths(2))), article(2L, monthStart(OLD_MONTH.plusMonths(1)))));
+        cache.articlesRecentLimit().put(2, List.of(1L, 2L));
+
+        cache.invalidate(ArticleChange.created(article(3L, monthStart(OLD_MONTH))));
+
+        assertNotNull(cache.articlesRecentLimit().getIfPresent(2));
+    }
+
+    @Test
+    public void testCreateWithRecentTailEvicted() {
+        cache.articlesRecentLimit().put(2, List.of(1L, 2L));
+
+        cache.invalidate(ArticleChange.created(article(3L, monthStart(OLD_MONTH))));
+
+        assertNull(cache.articlesRecentLimit().getIfPresent(2));
+    }
+
+    @Test
+    public void testCommentsOnlyAffectArticle() {
+        Article article = article(1L, monthStart(OLD_MONTH), 1L);
+        put(ArticleProjection.SUMMARY, List.of(article));
+        put(ArticleProjection.FULL, List.of(article));
+        var tagged = new ArticlesByTagBeforeDateRangeKey(ArticleProjection.SUMMARY, 1L, CutoffDates.LATEST, null, 0, 10);
+        var byTag = new ArticlesByTagMonthKey(1L, OLD_MONTH);
+        cache.articlesByTagBeforeDateRange().put(tagged, page(1L));
+        cache.daysWithArticles().put(OLD_MONTH, 1);
+        cache.daysWithArticlesByTag().put(byTag, 1);
+
+        assertEquals(2, cache.invalidate(ArticleChange.commentsChanged(article)));
+
+        assertNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.SUMMARY, 1L)));
+        assertNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.FULL, 1L)));
+        assertNotNull(cache.articlesByTagBeforeDateRange().getIfPresent(tagged));
+        assertNotNull(cache.daysWithArticles().getIfPresent(OLD_MONTH));
+        assertNotNull(cache.daysWithArticlesByTag().getIfPresent(byTag));
+    }
+
+    @Test
+    public void testUpdateAffectsChangedTags() {
+        var added = new ArticlesByTagBeforeDateRangeKey(ArticleProjection.SUMMARY, 1L, CutoffDates.LATEST, null, 0, 10);
+        var kept = new ArticlesByTagBeforeDateRangeKey(ArticleProjection.SUMMARY, 2L, CutoffDates.LATEST, null, 0, 10);
+        var untagged = new ArticlesBeforeDateRangeKey(ArticleProjection.SUMMARY, CutoffDates.LATEST, null, 0, 10);
+        cache.articlesByTagBeforeDateRange().put(added, page());
+        cache.articlesByTagBeforeDateRange().put(kept, page(1L));
+        cache.articlesBeforeDateRange().put(untagged, page(1L));
+
+        var change = ArticleChange.updated(article(1L, monthStart(OLD_MONTH), 1L, 2L), Set.of(2L, 3L));
+        assertEquals(Set.of(1L, 3L), change.tagIds());
+        cache.invalidate(change);
+
+        assertNull(cache.articlesByTagBeforeDateRange().getIfPresent(added));
+        assertNotNull(cache.articlesByTagBeforeDateRange().getIfPresent(kept));
+        assertNotNull(cache.articlesBeforeDateRange().getIfPresent(untagged));
+    }
+
+    @Test
+    public void testDeleteInEarlierMonth() {
+        var between = new ArticlesBetweenDatesKey(
+                ArticleProjection.SUMMARY, monthStart(OLD_MONTH).getTime(), monthStart(OLD_MONTH.plusMonths(1)).getTime());
+        cache.articlesBetweenDates().put(between, List.of(1L));
+        cache.daysWithArticles().put(OLD_MONTH, 1);
+        cache.daysWithArticles().put(OLD_MONTH.plusMonths(1), 1);
+        cache.archiveMonths().put(YearMonth.now(), List.of(OLD_MONTH));
+
+        cache.invalidate(ArticleChange.deleted(article(1L, monthStart(OLD_MONTH))));
+
+        assertNull(cache.articlesBetweenDates().getIfPresent(between));
+        assertNull(cache.daysWithArticles().getIfPresent(OLD_MONTH));
+        assertNotNull(cache.daysWithArticles().getIfPresent(OLD_MONTH.plusMonths(1)));
+        assertNull(cache.archiveMonths().getIfPresent(YearMonth.now()));
+    }
+
+    @Test
+    public void testCounts() {
+        var all = new ArticleCountKey((Long) null, CutoffDates.LATEST);
+        var older = new ArticleCountKey((Long) null, monthStart(OLD_MONTH).getTime());
+        var tagged = new ArticleCountKey(1L, CutoffDates.LATEST);
+        var otherTag = new ArticleCountKey(2L, CutoffDates.LATEST);
+        for (var key : List.of(all, older, tagged, otherTag)) {
+            cache.articleCounts().put(key, 10L);
+        }
+
+        cache.invalidate(ArticleChange.commentsChanged(article(1L, monthStart(OLD_MONTH), 1L)));
+        assertEquals(4, cache.articleCounts().estimatedSize());
+
+        cache.invalidate(ArticleChange.created(article(1L, monthStart(OLD_MONTH), 1L)));
+        assertNull(cache.articleCounts().getIfPresent(all));
+        assertNotNull(cache.articleCounts().getIfPresent(older));
+        assertNull(cache.articleCounts().getIfPresent(tagged));
+        assertNotNull(cache.articleCounts().getIfPresent(otherTag));
+
+        cache.invalidateTag(2L);
+        assertNull(cache.articleCounts().getIfPresent(otherTag));
+    }
+
+    @Test
+    public void testPermalinkIndex() {
+        Article article = article(1L, monthStart(OLD_MONTH));
+        cache.permalinks().put("first", 1L);
+        cache.permalinks().put("second", 2L);
+
+        cache.invalidate(ArticleChange.commentsChanged(article));
+        assertEquals(Long.valueOf(1L), cache.permalinks().getIfPresent("first"));
+
+        cache.invalidate(ArticleChange.updated(article, Set.of()));
+        assertNull(cache.permalinks().getIfPresent("first"));
+        assertEquals(Long.valueOf(2L), cache.permalinks().getIfPresent("second"));
+    }
+
+    @Test
+    public void testInvalidateArticle() {
+        Date created = monthStart(OLD_MONTH);
+        put(ArticleProjection.FULL, List.of(article(1L, created), article(2L, created)));
+        cache.permalinks().put("first", 1L);
+        cache.articlesRecentLimit().put(2, List.of(1L, 2L));
+        cache.daysWithArticles().put(OLD_MONTH, 1);
+
+        assertEquals(created, cache.findCreationDate(1L));
+        assertEquals(2, cache.invalidateArticle(1L));
+
+        assertNull(cache.findCreationDate(1L));
+        assertNull(cache.permalinks().getIfPresent("first"));
+        assertEquals(created, cache.findCreationDate(2L));
+        assertNotNull(cache.articlesRecentLimit().getIfPresent(2));
+        assertNotNull(cache.daysWithArticles().getIfPresent(OLD_MONTH));
+    }
+
+    @Test
+    public void testInvalidateTag() {
+        put(ArticleProjection.SUMMARY, List.of(
+                article(1L, monthStart(OLD_MONTH), 1L), article(2L, monthStart(OLD_MONTH), 2L)));
+
+        assertEquals(1, cache.invalidateTag(1L));
+        assertNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.SUMMARY, 1L)));
+        assertNotNull(cache.articles().getIfPresent(new ArticleKey(ArticleProjection.SUMMARY, 2L)));
+    }
+
+    private List<Long> put(ArticleProjection projection, List<Article> articles) {
+        return cache.putArticles(projection, articles, cache.generation());
+    }
+
+    private static Page<Long> page(Long... ids) {
+        return new Page<>(List.of(ids), 0, ids.length, 10);
+    }
+
+    private static Article article(Long id, Date created, Long... tagIds) {
+        Article article = new Article();
+        article.setId(id);
+        article.setCreationDate(created);
+        for (Long tagId : tagIds) {
+            Tag tag = new Tag();
+            tag.setId(tagId);
+            article.getTags().add(tag);
+        }
+        return article;
+    }
+
+    private static Date monthStart(YearMonth month) {
+        return Date.from(month.atDay(1).atStartOfDay(ZONE).toInstant());
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.randomcoder.website.cache;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class CutoffDatesTest {
+
+    private static final long NOW = Instant.parse("2007-03-04T05:06:07Z").toEpochMilli();
+
+    @Test
+    public void testPastDateKept() {
+        assertEquals(NOW - 1, CutoffDates.normalize(new Date(NOW - 1), NOW));
+        assertEquals(NOW, CutoffDates.normalize(new Date(NOW), NOW));
+    }
+
+    @Test
+    public void testFutureDateIsLatest() {
+        assertEquals(CutoffDates.LATEST, CutoffDates.normalize(new Date(NOW + 1), NOW));
+    }
+
+    @Test
+    public void testApiCutoffsShareKey() {
+        var first = new ArticlesBeforeDateRangeKey(
+                null, Date.from(Instant.now().plus(31, ChronoUnit.DAYS)), null, 0, 10);
+        var second = new ArticlesBeforeDateRangeKey(
+                null, Date.from(Instant.now().plus(31, ChronoUnit.DAYS).plusMillis(5)), null, 0, 10);
+        assertEquals(first, second);
+    }
+
+}
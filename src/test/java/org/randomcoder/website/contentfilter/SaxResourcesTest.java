@@ -0,0 +1,84 @@
+package org.randomcoder.website.contentfilter;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.StringReader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SaxResourcesTest {
+
+    @Test
+    public void testXMLReaderReusedPerThread() throws Exception {
+        XMLReader first = SaxResources.namespaceAwareXMLReader();
+        XMLReader second = SaxResources.namespaceAwareXMLReader();
+        assertSame(first, second);
+        assertTrue(first.getFeature("http://xml.org/sax/features/namespaces"));
+    }
+
+    @Test
+    public void testXMLReaderNotSharedAcrossThreads() throws Exception {
+        XMLReader local = SaxResources.namespaceAwareXMLReader();
+        XMLReader[] other = new XMLReader[1];
+        Thread thread = new Thread(() -> {
+            try {
+                other[0] = SaxResources.namespaceAwareXMLReader();
+            } catch (SAXException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertNotSame(local, other[0]);
+    }
+
+    @Test
+    public void testXMLReaderUsableAfterError() throws Exception {
+        XMLReader reader = SaxResources.namespaceAwareXMLReader();
+        reader.setContentHandler(new DefaultHandler());
+        try {
+            reader.parse(new InputSource(new StringReader("<a><b></a>")));
+            fail("Expected exception");
+        } catch (SAXException e) {
+            // expected
+        }
+
+        AtomicInteger elements = new AtomicInteger();
+        reader = SaxResources.namespaceAwareXMLReader();
+        reader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes atts) {
+                elements.incrementAndGet();
+            }
+        });
+        reader.parse(new InputSource(new StringReader("<a><b/></a>")));
+        assertEquals(2, elements.get());
+    }
+
+    @Test
+    public void testTransformerFactoryReusedPerThread() {
+        assertSame(SaxResources.transformerFactory(), SaxResources.transformerFactory());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        SaxResources.namespaceAwareXMLReader();
+        SaxResources.namespaceAwareXMLReader();
+        var metrics = SaxResources.metrics().getMetrics();
+        assertTrue(metrics.containsKey("parsers.created"));
+        assertTrue(metrics.containsKey("parsers.reused"));
+        assertTrue(metrics.containsKey("transformer.factories.created"));
+        assertTrue(metrics.containsKey("transformer.factories.reused"));
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.randomcoder.website.contentfilter;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SymbolTableTest {
+
+    private static SymbolTable<Integer> table(String... names) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], i);
+        }
+        return new SymbolTable<>(map);
+    }
+
+    @Test
+    public void testGet() {
+        SymbolTable<Integer> table = table("a", "abbr", "td", "th", "tr", "h1");
+        assertEquals(Integer.valueOf(0), table.get("a"));
+        assertEquals(Integer.valueOf(1), table.get("abbr"));
+        assertEquals(Integer.valueOf(4), table.get("tr"));
+        assertNull(table.get("ab"));
+        assertNull(table.get(""));
+        assertNull(table.get("script"));
+    }
+
+    @Test
+    public void testGetCaseInsensitive() {
+        SymbolTable<Integer> table = table("a", "h1", "href");
+        assertEquals(Integer.valueOf(0), table.get("A"));
+        assertEquals(Integer.valueOf(1), table.get("H1"));
+        assertEquals(Integer.valueOf(2), table.get("HrEf"));
+        assertNull(table.get("Ka"));
+    }
+
+    @Test
+    public void testGetRange() {
+        SymbolTable<Integer> table = table("em", "strong");
+        assertEquals(Integer.valueOf(1), table.get("x:STRONG", 2, 8));
+        assertEquals(Integer.valueOf(0), table.get("em", 0, 2));
+        assertNull(table.get("x:STRONG", 2, 7));
+        assertNull(table.get("x:STRONG", 0, 8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonAscii() {
+        table("café");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicate() {
+        table("td", "TD");
+    }
+
+}
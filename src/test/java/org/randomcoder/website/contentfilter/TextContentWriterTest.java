@@ -0,0 +1,100 @@
+package org.randomcoder.website.contentfilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextContentWriterTest {
+
+    // input / expected output pairs, captured from the XSLT pipeline
+    private static final String[][] GOLDEN = {
+            {"", "<div class=\"text-plain\">\n</div>"},
+            {"one", "<div class=\"text-plain\">\none\n</div>"},
+            {"one\ntwo", "<div class=\"text-plain\">\none<br/>\ntwo\n</div>"},
+            {"Line 1\r\nLine 2\r\n", "<div class=\"text-plain\">\nLine 1<br/>\nLine 2\n</div>"},
+            {"\r\nx\r\n", "<div class=\"text-plain\">\n<br/>\nx\n</div>"},
+            {"  lead\n\n trail  \n", "<div class=\"text-plain\">\nlead<br/>\n<br/>\ntrail\n</div>"},
+            {"a < b & c > d \"q\" 'x' ]]>", "<div class=\"text-plain\">\na &lt; b &amp; c &gt; d \"q\" 'x' ]]&gt;\n</div>"},
+            {"café € 😀", "<div class=\"text-plain\">\ncaf&#233; &#8364; &#128512;\n</div>"},
+            {"tab\there", "<div class=\"text-plain\">\ntab\there\n</div>"},
+            {"e~\u007f\u0080\u009f", "<div class=\"text-plain\">\ne~&#127;&#128;&#159;\n</div>"},
+            {"x y\u0085z", "<div class=\"text-plain\">\nx&#8232;y&#133;z\n</div>"},
+    };
+
+    // characters XML 1.0 doesn't allow, even as references, are dropped; the XSLT pipeline rejects these on newer JDKs
+    private static final String[][] ILLEGAL = {
+            {"a\u0000b\u0001c\u000bd\u001fe", "<div class=\"text-plain\">\nabcde\n</div>"},
+            {"z￾￿", "<div class=\"text-plain\">\nz\n</div>"},
+            {"x\ude00", "<div class=\"text-plain\">\nx\n</div>"},
+            {"x\ud800", "<div class=\"text-plain\">\nx\n</div>"},
+            {"x😀\u0000", "<div class=\"text-plain\">\nx&#128512;\n</div>"},
+    };
+
+    private TextFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = new TextFilter();
+    }
+
+    private String writeDirect(String text) throws Exception {
+        StringWriter out = new StringWriter();
+        new TextContentWriter().write(new StringReader(text), out);
+        return out.toString();
+    }
+
+    private String writeXslt(String text) throws Exception {
+        StringWriter out = new StringWriter();
+        TransformerHandler handler = SaxResources.transformerFactory().newTransformerHandler(filter.getXSLTemplates("text/plain"));
+        handler.setResult(new StreamResult(out));
+        TextReader reader = new TextReader();
+        reader.setContentHandler(handler);
+        reader.parse(new InputSource(new StringReader(text)));
+        return out.toString();
+    }
+
+    @Test
+    public void testGolden() throws Exception {
+        for (String[] entry : GOLDEN) {
+            assertEquals(entry[1], writeDirect(entry[0]));
+        }
+    }
+
+    @Test
+    public void testIllegalCharactersDropped() throws Exception {
+        for (String[] entry : ILLEGAL) {
+            assertEquals(entry[1], writeDirect(entry[0]));
+        }
+    }
+
+    @Test
+    public void testMatchesXslt() throws Exception {
+        for (String[] entry : GOLDEN) {
+            assertEquals(writeXslt(entry[0]), writeDirect(entry[0]));
+        }
+    }
+
+    @Test(expected = SAXException.class)
+    public void testUnpairedSurrogate() throws Exception {
+        writeDirect("x\ud800 y");
+    }
+
+    @Test
+    public void testFormatOutputStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentUtils.format("text/plain", null, new InputSource(new StringReader("café")), filter,
+                new StreamResult(out));
+        assertEquals("<div class=\"text-plain\">\ncaf&#233;\n</div>", out.toString(StandardCharsets.US_ASCII));
+    }
+
+}
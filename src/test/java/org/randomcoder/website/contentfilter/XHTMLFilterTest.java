@@ -0,0 +1,95 @@
+package org.randomcoder.website.contentfilter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class XHTMLFilterTest {
+
+    private static final String VALID = "<p>This is a <strong>test</strong>.</p>";
+    private static final String INVALID = "<p>This is a <br>test.</p>";
+
+    // the parser reports the position just after the name of the mismatched end tag
+    private static final int INVALID_COLUMN = INVALID.indexOf("</p>") + "</p".length();
+
+    private XHTMLFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = new XHTMLFilter(Collections.emptySet());
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        validate(VALID);
+    }
+
+    @Test
+    public void testValidateRepeated() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            validate(VALID);
+        }
+    }
+
+    @Test
+    public void testValidateFailureRepeated() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertInvalid(INVALID);
+        }
+    }
+
+    @Test
+    public void testValidateAfterFailure() throws Exception {
+        validate(VALID);
+        assertInvalid(INVALID);
+        validate(VALID);
+        validate("<p>Another <em>test</em>.</p>");
+        assertInvalid(INVALID);
+    }
+
+    @Test
+    public void testValidateConcurrently() throws Exception {
+        Thread[] threads = new Thread[4];
+        Throwable[] errors = new Throwable[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            int n = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 20; j++) {
+                        validate("<p>Thread " + n + ", pass " + j + "</p>");
+                        assertInvalid(INVALID);
+                    }
+                } catch (Throwable t) {
+                    errors[n] = t;
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            if (errors[i] != null) {
+                throw new AssertionError("Thread " + i + " failed", errors[i]);
+            }
+        }
+    }
+
+    private void validate(String content) throws Exception {
+        filter.validate("application/xhtml+xml", new StringReader(XHTMLFilter.PREFIX + content + XHTMLFilter.SUFFIX));
+    }
+
+    private void assertInvalid(String content) throws Exception {
+        try {
+            validate(content);
+            fail("Content should not be valid");
+        } catch (InvalidContentException e) {
+            assertEquals(1, e.getLineNumber());
+            assertEquals(INVALID_COLUMN, e.getColumnNumber());
+        }
+    }
+
+}
@@ -61,6 +61,29 @@ public class XHTMLReaderTest {
         assertEquals(TEST_PREFIX + "<strong>Test</strong>" + TEST_SUFFIX, handler.getData());
     }
 
+    @Test
+    public void testMixedCaseNames() throws Exception {
+        InputSource source = buildInputSource("<STRONG Title='t' ONCLICK='x'>Test</STRONG><B>Bold</B><A HREF='javascript:x'>Link</A>");
+        reader.parse(source);
+        assertEquals(TEST_PREFIX + "<strong title=\"t\">Test</strong><strong>Bold</strong><a href=\"#\">Link</a>" + TEST_SUFFIX,
+                handler.getData());
+    }
+
+    @Test
+    public void testQualifiedNamesOnly() throws Exception {
+        SAXParserFactory spf = SAXParserFactory.newInstance();
+        spf.setNamespaceAware(false);
+        reader = new XHTMLReader(spf.newSAXParser().getXMLReader(), Set.of(), null);
+        reader.setContentHandler(handler);
+        reader.setErrorHandler(handler);
+
+        InputSource source = buildRawInputSource(
+                "<html xmlns='http://www.w3.org/1999/xhtml' xmlns:x='urn:x'><body>"
+                        + "<x:STRONG Title='t' ONCLICK='x'>Test</x:STRONG><script>x</script></body></html>");
+        reader.parse(source);
+        assertEquals(TEST_PREFIX + "<strong title=\"t\">Test</strong>" + TEST_SUFFIX, handler.getData());
+    }
+
     @Test
     public void testAllowedClass() throws Exception {
         InputSource source = buildInputSource("<strong class='allowed'>Test</strong>");
@@ -0,0 +1,104 @@
+package org.randomcoder.website.contentfilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class XHTMLSerializerTest {
+
+    private static final String START = "<div class=\"application-xhtml-xml\">";
+
+    // input / expected output pairs, captured from the XSLT pipeline
+    private static final String[][] GOLDEN = {
+            {"", "<div class=\"application-xhtml-xml\"/>\n"},
+            {"text", START + "text</div>\n"},
+            {"<p>para</p>", START + "\n    <p>para</p>\n</div>\n"},
+            {"<p>a</p><p>b</p>", START + "\n    <p>a</p>\n    <p>b</p>\n</div>\n"},
+            {"<p>a <strong>b</strong> c</p>", START + "\n    <p>\n        a \n        <strong>b</strong>\n         c\n    </p>\n</div>\n"},
+            {"<div>\n  <p>x</p>\n</div>", START + "\n    <div>\n          \n        <p>x</p>\n        \n    </div>\n</div>\n"},
+            {"<ul><li>a</li><li>b<ul><li>c</li></ul></li></ul>", START + "\n    <ul>\n        <li>a</li>\n        <li>\n            b\n            <ul>\n                <li>c</li>\n            </ul>\n        </li>\n    </ul>\n</div>\n"},
+            {"<p>a<br/>b</p>", START + "\n    <p>\n        a\n        <br/>\n        b\n    </p>\n</div>\n"},
+            {"<img src='http://x/y.png' alt='a &amp; &quot;b&quot; &lt;'/>", START + "\n    <img src=\"http://x/y.png\" alt=\"a &amp; &quot;b&quot; &lt;\"/>\n</div>\n"},
+            {"<pre>  line1\n    line2\n</pre>", START + "\n    <pre>  line1\n    line2\n</pre>\n</div>\n"},
+            {"<p>café &#128512; &lt;&gt;&amp; \"q\" ]]&gt;</p>", START + "\n    <p>caf&#233; &#128512; &lt;&gt;&amp; \"q\" ]]&gt;</p>\n</div>\n"},
+            {"<p class='ok bad'>x</p>", START + "\n    <p class=\"ok\">x</p>\n</div>\n"},
+            {"<!-- comment --><p>x</p>", START + "\n    <p>x</p>\n</div>\n"},
+            {"<?pi data?><p>x</p>", START + "\n    <?pi data?>\n    <p>x</p>\n</div>\n"},
+            {"<p>a<?x y?>b</p>", START + "\n    <p>\n        a\n        <?x y?>\n        b\n    </p>\n</div>\n"},
+            {"lead<p>a</p>tail", START + "\n    lead\n    <p>a</p>\n    tail\n</div>\n"},
+            {"<p title='a\tb\nc'>x</p>", START + "\n    <p title=\"a b c\">x</p>\n</div>\n"},
+            {"<p title='&#233;&#10;&#13;&#9;'>x</p>", START + "\n    <p title=\"&#233;&#10;&#13;&#9;\">x</p>\n</div>\n"},
+            {"<p><![CDATA[<x>]]></p>", START + "\n    <p>&lt;x&gt;</p>\n</div>\n"},
+            {"<script>bad</script><p>ok</p>", START + "\n    <p>ok</p>\n</div>\n"},
+            {"<p>x</p>\n\n<p>y</p>\n", START + "\n    <p>x</p>\n    \n    <p>y</p>\n    \n</div>\n"},
+            {"<p>&#133; &#8232; &#160; &#13; &#127;</p>", START + "\n    <p>&#133; &#8232; &#160; &#13; &#127;</p>\n</div>\n"},
+            {"<em></em><B>x</B>", START + "\n    <em/>\n    <strong>x</strong>\n</div>\n"},
+            {"<p title='t' xmlns:foo='urn:foo' xmlns:bar='urn:bar'>x</p>", START + "\n    <p xmlns:foo=\"urn:foo\" xmlns:bar=\"urn:bar\" title=\"t\">x</p>\n</div>\n"},
+            {"<div xmlns:foo='u'><p xmlns:foo='v'>x</p><p xmlns:foo='u'>z</p></div>", START + "\n    <div xmlns:foo=\"u\">\n        <p xmlns:foo=\"v\">x</p>\n        <p>z</p>\n    </div>\n</div>\n"},
+    };
+
+    private XHTMLFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = new XHTMLFilter(Set.of("ok"));
+    }
+
+    private String writeDirect(String content) throws Exception {
+        StringWriter out = new StringWriter();
+        filter.getContentWriter(null, "application/xhtml+xml")
+                .write(new StringReader(XHTMLFilter.PREFIX + content + XHTMLFilter.SUFFIX), out);
+        return out.toString();
+    }
+
+    private String writeXslt(String content) throws Exception {
+        StringWriter out = new StringWriter();
+        TransformerHandler handler = SaxResources.transformerFactory()
+                .newTransformerHandler(filter.getXSLTemplates("application/xhtml+xml"));
+        handler.setResult(new StreamResult(out));
+        XMLReader reader = filter.getXMLReader(null, "application/xhtml+xml");
+        reader.setContentHandler(handler);
+        reader.parse(new InputSource(new StringReader(XHTMLFilter.PREFIX + content + XHTMLFilter.SUFFIX)));
+        return out.toString();
+    }
+
+    @Test
+    public void testGolden() throws Exception {
+        for (String[] entry : GOLDEN) {
+            assertEquals(entry[0], entry[1], writeDirect(entry[0]));
+        }
+    }
+
+    @Test
+    public void testMatchesXslt() throws Exception {
+        for (String[] entry : GOLDEN) {
+            assertEquals(entry[0], writeXslt(entry[0]), writeDirect(entry[0]));
+        }
+    }
+
+    @Test
+    public void testOutputEscapingInstructionsDropped() throws Exception {
+        String content = "<?javax.xml.transform.disable-output-escaping?><p>&lt;script&gt;</p>";
+        String expected = START + "\n    <p>&lt;script&gt;</p>\n</div>\n";
+        assertEquals(expected, writeDirect(content));
+        assertEquals(expected, writeXslt(content));
+    }
+
+    @Test
+    public void testPrefixOfFilteredElementDropped() throws Exception {
+        String content = "<script xmlns:foo='u'>x</script><p>y</p>";
+        String expected = START + "\n    <p>y</p>\n</div>\n";
+        assertEquals(expected, writeDirect(content));
+        assertEquals(expected, writeXslt(content));
+    }
+
+}
@@ -0,0 +1,67 @@
+package org.randomcoder.website.controller;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.core.SecurityContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.cache.FragmentCacheImpl;
+import org.randomcoder.website.data.Tag;
+import org.randomcoder.website.model.CalendarInfo;
+import org.randomcoder.website.thymeleaf.ThymeleafEntity;
+import org.randomcoder.website.thymeleaf.ThymeleafRenderer;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SidebarControllerTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2007, 3);
+
+    private final List<CalendarInfo> rendered = new ArrayList<>();
+    private SidebarController sidebar;
+
+    @Before
+    public void setUp() {
+        sidebar = new SidebarController();
+        sidebar.fragmentCache = new FragmentCacheImpl(new MetricRegistry());
+        sidebar.renderer = new ThymeleafRenderer() {
+            @Override
+            public String renderString(ThymeleafEntity entity, SecurityContext securityContext) {
+                CalendarInfo calendar = (CalendarInfo) entity.getVariable("calendar");
+                rendered.add(calendar);
+                return calendar.getSelfLink() + " " + calendar.getDisplayedMonthText();
+            }
+        };
+    }
+
+    @Test
+    public void testCalendarKeyedByTagAndMonth() {
+        String home = sidebar.calendar(null, MONTH, () -> new boolean[31]);
+        assertSame(home, sidebar.calendar(null, MONTH, () -> new boolean[31]));
+        assertEquals(1, rendered.size());
+
+        sidebar.calendar(tag("java"), MONTH, () -> new boolean[31]);
+        sidebar.calendar(null, MONTH.plusMonths(1), () -> new boolean[31]);
+        sidebar.calendar(tag("java"), MONTH, () -> new boolean[31]);
+        assertEquals(3, rendered.size());
+        assertEquals("/tags/java", rendered.get(1).getSelfLink());
+    }
+
+    @Test
+    public void testCalendarPath() {
+        assertEquals("/", SidebarController.calendarPath(null));
+        assertEquals("/tags/java", SidebarController.calendarPath("java"));
+        assertEquals("/tags/web%20services", SidebarController.calendarPath("web services"));
+    }
+
+    private static Tag tag(String name) {
+        Tag tag = new Tag();
+        tag.setName(name);
+        return tag;
+    }
+
+}
@@ -0,0 +1,353 @@
+package org.randomcoder.website.dao;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleCursor;
+import org.randomcoder.website.data.ArticleProjection;
+import org.randomcoder.website.data.Comment;
+import org.randomcoder.website.data.ModerationStatus;
+import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+// Runs against PostgreSQL, since the queries depend on its row comparisons, window functions and JSON functions. Set
+// test.database.url (and test.database.user / test.database.password) to a database the tests may create a schema in,
+// e.g. the one started by rc-database.sh; otherwise the tests are skipped.
+public class ArticleDaoImplTest {
+
+    private static final String SCHEMA = "article_dao_test";
+
+    // as applied by rc-database.sh
+    private static final String[] SCRIPTS = {
+            "create", "populate",
+            "upgrade-1.1", "upgrade-1.2", "upgrade-1.3", "upgrade-2.0", "upgrade-2.2", "upgrade-2.6",
+            "upgrade-3.0", "upgrade-4.0", "upgrade-5.1", "upgrade-5.2"};
+
+    // articles 1 and 2 share a creation date, so only the id tells them apart in a cursor
+    private static final String FIXTURE = """
+            INSERT INTO users (user_id, username, password, email, website, enabled)
+                VALUES (1, 'author', 'x', 'author@example.com', 'https://example.com/', true);
+            INSERT INTO tags (tag_id, name, display_name) VALUES (1, 'java', 'Java');
+            INSERT INTO tags (tag_id, name, display_name) VALUES (2, 'misc', 'Misc');
+            INSERT INTO articles (article_id, content_type, create_user_id, create_date, title, permalink, content, summary)
+                VALUES (1, 'TEXT', 1, '2007-03-01 10:00:00.123456+00', 'One', 'one', 'one', NULL);
+            INSERT INTO articles (article_id, content_type, create_user_id, create_date, title, permalink, content, summary)
+                VALUES (2, 'TEXT', 1, '2007-03-01 10:00:00.123456+00', 'Two', NULL, 'two', 'summary');
+            INSERT INTO articles (article_id, content_type, create_user_id, create_date, title, permalink, content, summary)
+                VALUES (3, 'TEXT', NULL, '2007-03-14 12:00:00+00', 'Three', NULL, 'three', NULL);
+            INSERT INTO articles (article_id, content_type, create_user_id, create_date, title, permalink, content, summary)
+                VALUES (4, 'TEXT', NULL, '2007-04-01 00:00:00+00', 'Four', NULL, 'four', NULL);
+            INSERT INTO articles (article_id, content_type, create_user_id, create_date, title, permalink, content, summary)
+                VALUES (5, 'TEXT', 1, '2007-05-01 00:00:00+00', 'Five', NULL, 'five', NULL);
+            INSERT INTO article_tag_link (article_id, tag_id) VALUES (1, 1);
+            INSERT INTO article_tag_link (article_id, tag_id) VALUES (2, 1);
+            INSERT INTO article_tag_link (article_id, tag_id) VALUES (2, 2);
+            INSERT INTO article_tag_link (article_id, tag_id) VALUES (3, 2);
+            INSERT INTO article_tag_link (article_id, tag_id) VALUES (5, 1);
+            INSERT INTO comments (comment_id, article_id, content_type, create_user_id, create_date, title, content,
+                    visible, moderation_status, ip_address, user_agent, content_rendered, render_version)
+                VALUES (1, 1, 'TEXT', 1, '2007-03-02 11:22:33.654321+00', 'First', 'first',
+                    true, 'HAM', '127.0.0.1', 'agent', 'first', 3);
+            INSERT INTO comments (comment_id, article_id, content_type, create_user_id, create_date, title, content,
+                    anonymous_user_name, anonymous_email_address, visible, moderation_status)
+                VALUES (2, 1, 'TEXT', NULL, '1969-12-31 23:59:59.999999+00', 'Second', 'second',
+                    'anonymous', 'anonymous@example.com', false, 'PENDING')""";
+
+    private static final Date FUTURE = timestamp("2100-01-01T00:00:00Z");
+
+    private PGSimpleDataSource dataSource;
+    private ArticleDaoImpl dao;
+
+    @Before
+    public void setUp() throws Exception {
+        String url = System.getProperty("test.database.url");
+        Assume.assumeTrue("test.database.url not set", url != null && !url.isEmpty());
+
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUser(System.getProperty("test.database.user", "postgres"));
+        dataSource.setPassword(System.getProperty("test.database.password", "postgres"));
+
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + SCHEMA);
+        }
+        dataSource.setCurrentSchema(SCHEMA);
+
+        try (Connection con = dataSource.getConnection()) {
+            for (String script : SCRIPTS) {
+                execute(con, resource("/org/randomcoder/website/database/" + script + ".sql"));
+            }
+            execute(con, FIXTURE);
+        }
+
+        dao = new ArticleDaoImpl();
+        dao.dataSource = dataSource;
+        dao.metrics = new MetricRegistry();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (dataSource == null) {
+            return;
+        }
+        try (Connection con = dataSource.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @Test
+    public void testCounts() {
+        assertEquals(5L, dao.countBeforeDate(FUTURE));
+        assertEquals(3L, dao.countBeforeDate(timestamp("2007-04-01T00:00:00Z")));
+        assertEquals(3L, dao.countByTagBeforeDate(tag(1L), FUTURE));
+        assertEquals(1L, dao.countByTagBeforeDate(tag(2L), timestamp("2007-03-14T00:00:00Z")));
+    }
+
+    @Test
+    public void testPagedTotals() {
+        for (boolean separateCountQuery : new boolean[] {false, true}) {
+            dao.separateCountQuery = separateCountQuery;
+
+            Page<Article> first = dao.listBeforeDate(ArticleProjection.SUMMARY, FUTURE, 0, 2);
+            assertEquals(List.of(5L, 4L), ids(first));
+            assertEquals(5L, first.getTotalSize());
+            assertEquals(ArticleCursor.of(first.getContent().get(1)).toString(), first.getNext());
+
+            Page<Article> last = dao.listBeforeDate(ArticleProjection.SUMMARY, FUTURE, 4, 2);
+            assertEquals(List.of(1L), ids(last));
+            assertEquals(5L, last.getTotalSize());
+            assertNull(last.getNext());
+
+            // past the end, the total comes from the count query
+            Page<Article> beyond = dao.listBeforeDate(ArticleProjection.SUMMARY, FUTURE, 10, 2);
+            assertEquals(List.of(), ids(beyond));
+            assertEquals(5L, beyond.getTotalSize());
+
+            Page<Article> tagged = dao.listByTagBeforeDate(ArticleProjection.SUMMARY, tag(1L), FUTURE, 1, 2);
+            assertEquals(List.of(2L, 1L), ids(tagged));
+            assertEquals(3L, tagged.getTotalSize());
+            assertNull(tagged.getNext());
+
+            assertEquals(5L, dao.listByDateDesc(ArticleProjection.SUMMARY, 0, 2).getTotalSize());
+        }
+    }
+
+    @Test
+    public void testCursorPaging() {
+        long total = dao.countBeforeDate(FUTURE);
+        Page<Article> page = dao.listBeforeDate(ArticleProjection.SUMMARY, FUTURE, 0, 2);
+        List<Long> ids = new ArrayList<>(ids(page));
+        List<Long> pageNumbers = new ArrayList<>();
+        while (page.getNext() != null) {
+            ArticleCursor after = ArticleCursor.parse(page.getNext());
+            assertNotNull(after);
+            page = dao.listBeforeCursor(ArticleProjection.SUMMARY, FUTURE, after, ids.size(), 2, total);
+            assertEquals(total, page.getTotalSize());
+            pageNumbers.add(page.getPageNumber());
+            ids.addAll(ids(page));
+        }
+
+        // the tie between articles 1 and 2 is broken by id, with microseconds intact
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), ids);
+        assertEquals(List.of(1L, 2L), pageNumbers);
+        assertEquals(List.of(1L), ids(page));
+    }
+
+    @Test
+    public void testCursorPagingByTag() {
+        Tag java = tag(1L);
+        long total = dao.countByTagBeforeDate(java, FUTURE);
+        Page<Article> first = dao.listByTagBeforeDate(ArticleProjection.SUMMARY, java, FUTURE, 0, 2);
+        assertEquals(List.of(5L, 2L), ids(first));
+
+        Page<Article> second = dao.listByTagBeforeCursor(
+                ArticleProjection.SUMMARY, java, FUTURE, ArticleCursor.parse(first.getNext()), 2, 2, total);
+        assertEquals(List.of(1L), ids(second));
+        assertEquals(1L, second.getPageNumber());
+        assertEquals(3L, second.getTotalSize());
+        assertNull(second.getNext());
+    }
+
+    @Test
+    public void testCursorBeforeCutoff() {
+        // the cutoff still applies to pages read from a cursor
+        Date endDate = timestamp("2007-04-01T00:00:00Z");
+        ArticleCursor after = new ArticleCursor(Instant.parse("2007-05-01T00:00:00Z"), 5L);
+        Page<Article> page = dao.listBeforeCursor(
+                ArticleProjection.SUMMARY, endDate, after, 0, 2, dao.countBeforeDate(endDate));
+        assertEquals(List.of(3L, 2L), ids(page));
+        assertEquals(3L, page.getTotalSize());
+        assertEquals("1172743200123456-2", page.getNext());
+    }
+
+    @Test
+    public void testLoadStrategies() {
+        for (ArticleLoadStrategy strategy : ArticleLoadStrategy.values()) {
+            dao.loadStrategy = strategy;
+
+            Article article = dao.findById(1L);
+            assertEquals(strategy.name(), List.of("java"), tagNames(article));
+            assertEquals(strategy.name(), List.of("Java", "Misc"), tagNames(dao.findById(2L)));
+
+            List<Comment> comments = article.getComments();
+            assertEquals(strategy.name(), 2, comments.size());
+
+            Comment first = comments.get(0);
+            assertEquals(1L, first.getId().longValue());
+            assertSame(article, first.getArticle());
+            assertSame(article.getCreatedByUser(), first.getCreatedByUser());
+            assertEquals(Instant.parse("2007-03-02T11:22:33.654321Z"), first.getCreationDate().toInstant());
+            assertEquals(ModerationStatus.HAM, first.getModerationStatus());
+            assertTrue(first.isVisible());
+            assertEquals("127.0.0.1", first.getIpAddress());
+            assertNull(first.getReferrer());
+            assertEquals("first", first.getRenderedContent());
+            assertEquals(Integer.valueOf(3), first.getRenderVersion());
+
+            // microseconds before the epoch round the other way
+            Comment second = comments.get(1);
+            assertNull(second.getCreatedByUser());
+            assertEquals(Instant.parse("1969-12-31T23:59:59.999999Z"), second.getCreationDate().toInstant());
+            assertEquals("anonymous", second.getAnonymousUserName());
+            assertEquals(ModerationStatus.PENDING, second.getModerationStatus());
+            assertFalse(second.isVisible());
+            assertNull(second.getRenderVersion());
+
+            // articles with nothing to aggregate get empty lists
+            Article plain = dao.findById(4L);
+            assertEquals(List.of(), plain.getTags());
+            assertEquals(List.of(), plain.getComments());
+        }
+    }
+
+    @Test
+    public void testCreationDatesBetweenDates() {
+        Date start = timestamp("2007-03-01T00:00:00Z");
+        Date end = timestamp("2007-04-01T00:00:00Z");
+
+        // the end of the month is excluded, so article 4 isn't included
+        assertEquals(List.of(
+                        Instant.parse("2007-03-01T10:00:00.123456Z"),
+                        Instant.parse("2007-03-01T10:00:00.123456Z"),
+                        Instant.parse("2007-03-14T12:00:00Z")),
+                instants(dao.listCreationDatesBetweenDates(start, end)));
+        assertEquals(List.of(
+                        Instant.parse("2007-03-01T10:00:00.123456Z"),
+                        Instant.parse("2007-03-14T12:00:00Z")),
+                instants(dao.listCreationDatesByTagBetweenDates(tag(2L), start, end)));
+        assertEquals(List.of(), dao.listCreationDatesByTagBetweenDates(tag(1L), end, timestamp("2007-05-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testListByIds() {
+        for (ArticleLoadStrategy strategy : ArticleLoadStrategy.values()) {
+            dao.loadStrategy = strategy;
+
+            // missing ids are left out
+            Map<Long, Article> summaries = byId(dao.listByIds(ArticleProjection.SUMMARY, List.of(1L, 2L, 99L)));
+            assertEquals(Set.of(1L, 2L), summaries.keySet());
+            assertEquals(1, summaries.get(1L).getCommentCount());
+            assertEquals("one", summaries.get(1L).getContent());
+            assertNull(summaries.get(2L).getContent());
+            assertEquals(List.of("Java", "Misc"), summaries.get(2L).getTags().stream().map(Tag::getDisplayName).toList());
+            assertSame(summaries.get(1L).getCreatedByUser(), summaries.get(2L).getCreatedByUser());
+
+            Map<Long, Article> full = byId(dao.listByIds(ArticleProjection.FULL, List.of(1L, 3L)));
+            assertEquals(Set.of(1L, 3L), full.keySet());
+            assertEquals(2, full.get(1L).getComments().size());
+            assertEquals(List.of(), full.get(3L).getComments());
+            assertNull(full.get(3L).getCreatedByUser());
+        }
+        assertEquals(List.of(), dao.listByIds(ArticleProjection.FULL, List.of()));
+        assertEquals(List.of(), dao.listByIds(ArticleProjection.FULL, List.of(99L)));
+    }
+
+    @Test
+    public void testFindCreationDateById() {
+        assertEquals(Instant.parse("2007-03-01T10:00:00.123456Z"), dao.findCreationDateById(1L).toInstant());
+        assertNull(dao.findCreationDateById(99L));
+    }
+
+    @Test
+    public void testFindIdByPermalink() {
+        assertEquals(Long.valueOf(1L), dao.findIdByPermalink("one"));
+        assertNull(dao.findIdByPermalink("two"));
+    }
+
+    private static List<Long> ids(Page<Article> page) {
+        return page.getContent().stream().map(Article::getId).toList();
+    }
+
+    private static Map<Long, Article> byId(List<Article> articles) {
+        return articles.stream().collect(Collectors.toMap(Article::getId, Function.identity()));
+    }
+
+    private static List<Instant> instants(List<Date> dates) {
+        return dates.stream().map(Date::toInstant).sorted().toList();
+    }
+
+    private static List<String> tagNames(Article article) {
+        return article.getTags().stream().map(Tag::getName).toList();
+    }
+
+    private static Tag tag(long id) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        return tag;
+    }
+
+    private static Timestamp timestamp(String instant) {
+        return Timestamp.from(Instant.parse(instant));
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = ArticleDaoImplTest.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // the scripts are plain statements, with no semicolons other than the ones which end them
+    private static void execute(Connection con, String script) throws SQLException {
+        StringBuilder sql = new StringBuilder();
+        for (String line : script.split("\n")) {
+            int comment = line.indexOf("--");
+            sql.append(comment < 0 ? line : line.substring(0, comment)).append('\n');
+        }
+        try (Statement st = con.createStatement()) {
+            for (String statement : sql.toString().split(";")) {
+                if (!statement.isBlank()) {
+                    st.execute(statement);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.randomcoder.website.data;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArticleCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        var cursor = new ArticleCursor(Instant.parse("2007-03-04T05:06:07.123456Z"), 42L);
+        assertEquals("1172984767123456-42", cursor.toString());
+        assertEquals(cursor, ArticleCursor.parse(cursor.toString()));
+    }
+
+    @Test
+    public void testRoundTripBeforeEpoch() {
+        var cursor = new ArticleCursor(Instant.parse("1969-12-31T23:59:59.999999Z"), 7L);
+        assertEquals(cursor, ArticleCursor.parse(cursor.toString()));
+    }
+
+    @Test
+    public void testOfKeepsMicroseconds() {
+        Timestamp created = Timestamp.from(Instant.parse("2007-03-04T05:06:07.123456Z"));
+        Article article = new Article();
+        article.setId(3L);
+        article.setCreationDate(created);
+
+        var cursor = ArticleCursor.of(article);
+        assertEquals(created.toInstant(), cursor.createDate());
+        assertEquals(3L, cursor.articleId());
+    }
+
+    @Test
+    public void testParseInvalid() {
+        assertNull(ArticleCursor.parse(null));
+        assertNull(ArticleCursor.parse(""));
+        assertNull(ArticleCursor.parse("12345"));
+        assertNull(ArticleCursor.parse("-12345"));
+        assertNull(ArticleCursor.parse("abc-1"));
+        assertNull(ArticleCursor.parse("1-"));
+        assertNull(ArticleCursor.parse("99999999999999999999-1"));
+    }
+
+}
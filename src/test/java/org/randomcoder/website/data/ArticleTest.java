@@ -0,0 +1,33 @@
+package org.randomcoder.website.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArticleTest {
+
+    @Test
+    public void testCommentCountFromComments() {
+        Article article = new Article();
+        assertEquals(0, article.getCommentCount());
+
+        article.getComments().add(comment(true));
+        article.getComments().add(comment(false));
+        article.getComments().add(comment(true));
+        assertEquals(2, article.getCommentCount());
+    }
+
+    @Test
+    public void testCommentCountLoaded() {
+        Article article = new Article();
+        article.setCommentCount(5);
+        assertEquals(5, article.getCommentCount());
+    }
+
+    private static Comment comment(boolean visible) {
+        Comment comment = new Comment();
+        comment.setVisible(visible);
+        return comment;
+    }
+
+}
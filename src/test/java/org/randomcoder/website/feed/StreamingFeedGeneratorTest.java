@@ -0,0 +1,287 @@
+package org.randomcoder.website.feed;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.bo.AppInfoBusiness;
+import org.randomcoder.website.bo.ContentBusiness;
+import org.randomcoder.website.cache.FeedCache;
+import org.randomcoder.website.cache.FeedCacheImpl;
+import org.randomcoder.website.contentfilter.ContentFilter;
+import org.randomcoder.website.contentfilter.ContentUtils;
+import org.randomcoder.website.contentfilter.MultiContentFilter;
+import org.randomcoder.website.contentfilter.TextFilter;
+import org.randomcoder.website.contentfilter.XHTMLFilter;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.Comment;
+import org.randomcoder.website.data.ContentType;
+import org.randomcoder.website.data.Tag;
+import org.randomcoder.website.data.User;
+import org.randomcoder.website.xml.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.transform.TransformerException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingFeedGeneratorTest {
+
+    private URL baseUrl;
+    private AppInfoBusiness appInfo;
+    private ContentBusiness content;
+    private FeedInfo info;
+    private FeedCache feedCache;
+
+    @Before
+    public void setUp() throws Exception {
+        baseUrl = new URL("https://randomcoder.org/");
+        appInfo = new AppInfoStub();
+        feedCache = new FeedCacheImpl(new MetricRegistry());
+        content = new ContentBusinessStub(new MultiContentFilter(Map.of(
+                "text/plain", new TextFilter(),
+                "application/xhtml+xml", new XHTMLFilter(Set.of("external")))));
+
+        User user = new User();
+        user.setUserName("author");
+        user.setWebsite("https://example.com/");
+
+        Tag tag = new Tag();
+        tag.setName("java");
+        tag.setDisplayName("Java & <More>");
+
+        Article first = new Article();
+        first.setId(1L);
+        first.setPermalink("first-article");
+        first.setTitle("Hello & <goodbye>");
+        first.setContentType(ContentType.XHTML);
+        first.setContent("<p>Some <b>bold</b> <i>text</i> &amp; a <a href=\"/link\">link</a> é中😀</p>"
+                + "<pre>  indented\n  text</pre>");
+        first.setSummary("<p>A <em>summary</em></p>");
+        first.setCreatedByUser(user);
+        first.setCreationDate(new Date(1_000_000L));
+        first.setModificationDate(new Date(3_000_000L));
+        first.getTags().add(tag);
+        first.getComments().add(new Comment());
+
+        Article second = new Article();
+        second.setId(2L);
+        second.setTitle("Plain");
+        second.setContentType(ContentType.TEXT);
+        second.setContent("line 1\nline 2 <not markup>");
+        second.setCreationDate(new Date(2_000_000L));
+
+        info = new FeedInfo("randomCoder", "// TODO", new URL("https://randomcoder.org/feeds/atom/all"), baseUrl,
+                "atom-all", List.of(first, second));
+    }
+
+    // expected documents were captured from the former DOM-based generators
+    @Test
+    public void testAtomMatchesExpected() throws Exception {
+        assertSameDocument(resource("/feed-atom.xml"), init(new StreamingAtomFeedGenerator()).generateFeed(info));
+    }
+
+    @Test
+    public void testRss20MatchesExpected() throws Exception {
+        assertSameDocument(resource("/feed-rss20.xml"), init(new StreamingRss20FeedGenerator()).generateFeed(info));
+    }
+
+    @Test
+    public void testAtomKeepsWhitespace() throws Exception {
+        String feed = init(new StreamingAtomFeedGenerator()).generateFeed(info);
+        assertTrue(feed, Pattern.compile("</strong>\\s+<em>").matcher(feed).find());
+        assertTrue(feed, feed.contains("<pre>  indented\n  text</pre>"));
+    }
+
+    @Test
+    public void testWriteFeed() throws Exception {
+        FeedGenerator generator = init(new StreamingAtomFeedGenerator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeFeed(info, out);
+        String feed = out.toString(StandardCharsets.UTF_8);
+        assertTrue(feed, feed.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><feed"));
+        assertEquals(generator.generateFeed(info), feed);
+    }
+
+    @Test
+    public void testEntriesShared() throws Exception {
+        FeedGenerator atom = init(new StreamingAtomFeedGenerator());
+        FeedGenerator rss = init(new StreamingRss20FeedGenerator());
+
+        String atomFeed = atom.generateFeed(info);
+        rss.generateFeed(info);
+        assertEquals(4L, feedCache.entries().estimatedSize());
+
+        // a feed of a subset of the articles reuses their entries
+        FeedInfo subset = new FeedInfo("Tag", null, info.getFeedUrl(), baseUrl, "atom-tag", info.getArticles().subList(1, 2));
+        String subsetFeed = atom.generateFeed(subset);
+        assertEquals(4L, feedCache.entries().estimatedSize());
+        String entry = subsetFeed.substring(subsetFeed.indexOf("<entry>"), subsetFeed.indexOf("</feed>"));
+        assertTrue(atomFeed.contains(entry));
+
+        // a new revision is rendered again
+        info.getArticles().get(1).setModificationDate(new Date(4_000_000L));
+        atom.generateFeed(subset);
+        assertEquals(5L, feedCache.entries().estimatedSize());
+    }
+
+    @Test
+    public void testArchiveLinks() throws Exception {
+        info.setArchive(true);
+        info.setCurrentUrl(new URL(baseUrl, "/feeds/atom/all"));
+        info.setPrevArchiveUrl(new URL(baseUrl, "/feeds/atom/archive/2007/01"));
+        info.setNextArchiveUrl(new URL(baseUrl, "/feeds/atom/archive/2007/03"));
+
+        for (FeedGenerator generator : List.of(init(new StreamingAtomFeedGenerator()), init(new StreamingRss20FeedGenerator()))) {
+            Document doc = parse(generator.generateFeed(info));
+            assertEquals(1, doc.getElementsByTagNameNS(AbstractStreamingFeedGenerator.HISTORY_NS, "archive").getLength());
+
+            NodeList links = doc.getElementsByTagNameNS("http://www.w3.org/2005/Atom", "link");
+            assertEquals(info.getCurrentUrl().toExternalForm(), linkHref(links, "current"));
+            assertEquals(info.getPrevArchiveUrl().toExternalForm(), linkHref(links, "prev-archive"));
+            assertEquals(info.getNextArchiveUrl().toExternalForm(), linkHref(links, "next-archive"));
+        }
+    }
+
+    @Test
+    public void testEmptyFeed() throws Exception {
+        info.setArticles(List.of());
+        parse(init(new StreamingAtomFeedGenerator()).generateFeed(info));
+        parse(init(new StreamingRss20FeedGenerator()).generateFeed(info));
+    }
+
+    private AbstractStreamingFeedGenerator init(AbstractStreamingFeedGenerator generator) {
+        generator.appInfoBusiness = appInfo;
+        generator.contentBusiness = content;
+        generator.baseUrl = baseUrl;
+        generator.feedCache = feedCache;
+        return generator;
+    }
+
+    private static String linkHref(NodeList links, String rel) {
+        for (int i = 0; i < links.getLength(); i++) {
+            Element link = (Element) links.item(i);
+            if (rel.equals(link.getAttribute("rel"))) {
+                return link.getAttribute("href");
+            }
+        }
+        return null;
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = StreamingFeedGeneratorTest.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void assertSameDocument(String expected, String actual) throws Exception {
+        Document expectedDoc = parse(expected);
+        Document actualDoc = parse(actual);
+        assertTrue("Expected:\n" + expected + "\nActual:\n" + actual, expectedDoc.isEqualNode(actualDoc));
+    }
+
+    // parses a feed, ignoring whitespace differences between the golden files and the streamed output
+    private static Document parse(String xml) throws Exception {
+        Document doc = XmlUtils.parseXml(new InputSource(new StringReader(xml)));
+        normalize(doc.getDocumentElement());
+        return doc;
+    }
+
+    private static void normalize(Node node) {
+        Node child = node.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                String text = child.getNodeValue().replaceAll("\\s+", " ").trim();
+                if (text.isEmpty()) {
+                    node.removeChild(child);
+                } else {
+                    child.setNodeValue(text);
+                }
+            } else {
+                normalize(child);
+            }
+            child = next;
+        }
+    }
+
+    private static class AppInfoStub implements AppInfoBusiness {
+
+        @Override
+        public String getApplicationName() {
+            return "randomCoder <Website>";
+        }
+
+        @Override
+        public String getApplicationVersion() {
+            return "1.0";
+        }
+
+        @Override
+        public Instant getBuildDate() {
+            return Instant.EPOCH;
+        }
+
+    }
+
+    private static class ContentBusinessStub implements ContentBusiness {
+
+        private final ContentFilter filter;
+
+        ContentBusinessStub(ContentFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public String formatArticleText(Article article, URL url) throws TransformerException, IOException, SAXException {
+            return ContentUtils.formatText(article.getContent(), url, article.getContentType(), filter);
+        }
+
+        @Override
+        public String formatArticleSummary(Article article, URL url) throws TransformerException, IOException, SAXException {
+            return ContentUtils.formatText(article.getSummary(), url, article.getContentType(), filter);
+        }
+
+        @Override
+        public String formatCommentText(Comment comment, URL url) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void prerenderArticles(List<Article> articles) {
+        }
+
+        @Override
+        public void renderArticle(Article article) {
+        }
+
+        @Override
+        public void renderComment(Comment comment) {
+        }
+
+        @Override
+        public boolean renderStaleContent(int count) {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.randomcoder.website.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PooledUtf8WriterTest {
+
+    private static String repeat(String text, int length) {
+        StringBuilder buf = new StringBuilder(length + text.length());
+        while (buf.length() < length) {
+            buf.append(text);
+        }
+        return buf.toString();
+    }
+
+    private static byte[] write(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            writer.write(text);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testAscii() throws Exception {
+        String text = "<p>Hello, world</p>";
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), write(text));
+    }
+
+    @Test
+    public void testMultiByte() throws Exception {
+        // two- and three-byte sequences plus surrogate pairs, long enough to cross buffer boundaries
+        String text = repeat("café € 😀 ", 50_000);
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), write(text));
+    }
+
+    @Test
+    public void testSurrogatePairSplitAcrossWrites() throws Exception {
+        String text = repeat("a", 8191) + "😀";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            for (char c : text.toCharArray()) {
+                writer.write(c);
+            }
+        }
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            writer.write("abc");
+            assertEquals(0, out.size());
+            writer.flush();
+            assertEquals(3, out.size());
+        }
+    }
+
+    @Test
+    public void testBuffersReused() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            assertTrue(writer.isPooled());
+            try (PooledUtf8Writer nested = new PooledUtf8Writer(out)) {
+                assertFalse(nested.isPooled());
+            }
+        }
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            assertTrue(writer.isPooled());
+        }
+    }
+
+    @Test
+    public void testWriteAfterClose() throws Exception {
+        PooledUtf8Writer writer = new PooledUtf8Writer(new ByteArrayOutputStream());
+        writer.close();
+        writer.close();
+        try {
+            writer.write("x");
+            fail("Expected exception");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.randomcoder.website.jaxrs.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.cache.PageCacheImpl;
+import org.randomcoder.website.controller.HomeController;
+import org.randomcoder.website.thymeleaf.ThymeleafEntity;
+import org.randomcoder.website.thymeleaf.ThymeleafRenderer;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ArticleResourceTest {
+
+    private final List<String> built = new ArrayList<>();
+    private final List<String> rendered = new ArrayList<>();
+    private ArticleResource resource;
+
+    @Before
+    public void setUp() {
+        MetricRegistry metrics = new MetricRegistry();
+        resource = new ArticleResource();
+        resource.metrics = metrics;
+        resource.pageCache = new PageCacheImpl(metrics);
+        resource.homeController = new HomeController() {
+            @Override
+            public Map<String, ? extends Object> buildModel(UriInfo uriInfo) {
+                built.add(uriInfo.getRequestUri().toString());
+                return Map.of();
+            }
+        };
+        resource.renderer = new ThymeleafRenderer() {
+            @Override
+            public byte[] renderBytes(ThymeleafEntity entity, SecurityContext securityContext) {
+                rendered.add(entity.getView());
+                return (entity.getView() + " " + rendered.size()).getBytes(StandardCharsets.UTF_8);
+            }
+        };
+        resource.securityContext = securityContext(null);
+        resource.jaxrsRequest = FeedResourceTest.request(null, null);
+    }
+
+    @Test
+    public void testQueryNormalized() {
+        resource.uriInfo = uriInfo("b=2&a=1&a=0");
+        Response first = resource.home();
+        assertEquals(200, first.getStatus());
+
+        // the same parameters in any order are the same page
+        resource.uriInfo = uriInfo("a=0&b=2&a=1");
+        Response second = resource.home();
+        assertEquals(200, second.getStatus());
+        assertArrayEquals((byte[]) first.getEntity(), (byte[]) second.getEntity());
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+        assertEquals(1, rendered.size());
+
+        resource.uriInfo = uriInfo("a=0&b=3&a=1");
+        resource.home();
+        resource.uriInfo = uriInfo(null);
+        resource.home();
+        assertEquals(3, rendered.size());
+        assertEquals(3, resource.pageCache.pages().estimatedSize());
+    }
+
+    @Test
+    public void testNotModified() {
+        resource.uriInfo = uriInfo(null);
+        Response first = resource.home();
+        assertEquals(200, first.getStatus());
+        assertNotNull(first.getEntityTag());
+
+        resource.jaxrsRequest = FeedResourceTest.request(first.getEntityTag(), null);
+        Response revalidated = resource.home();
+        assertEquals(304, revalidated.getStatus());
+        assertNull(revalidated.getEntity());
+        assertEquals(1, rendered.size());
+        assertEquals(1, built.size());
+    }
+
+    @Test
+    public void testAuthenticatedBypassesCache() {
+        resource.securityContext = securityContext(() -> "admin");
+        resource.uriInfo = uriInfo(null);
+
+        for (int i = 0; i < 2; i++) {
+            Response response = resource.home();
+            assertEquals(200, response.getStatus());
+            assertTrue(response.getEntity() instanceof ThymeleafEntity);
+            assertNull(response.getEntityTag());
+        }
+        assertEquals(2, built.size());
+        assertEquals(0, resource.pageCache.pages().estimatedSize());
+    }
+
+    private static SecurityContext securityContext(Principal principal) {
+        SecurityContext securityContext = createNiceMock(SecurityContext.class);
+        expect(securityContext.getUserPrincipal()).andStubReturn(principal);
+        replay(securityContext);
+        return securityContext;
+    }
+
+    private static UriInfo uriInfo(String query) {
+        var params = new MultivaluedHashMap<String, String>();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                int eq = param.indexOf('=');
+                params.add(param.substring(0, eq), param.substring(eq + 1));
+            }
+        }
+
+        UriInfo uriInfo = createNiceMock(UriInfo.class);
+        expect(uriInfo.getRequestUri()).andStubReturn(
+                URI.create("http://localhost/" + (query == null ? "" : "?" + query)));
+        expect(uriInfo.getPath()).andStubReturn("");
+        expect(uriInfo.getQueryParameters()).andStubReturn(params);
+        replay(uriInfo);
+        return uriInfo;
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.randomcoder.website.jaxrs.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.easymock.Capture;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.bo.ArticleBusiness;
+import org.randomcoder.website.bo.TagBusiness;
+import org.randomcoder.website.cache.CutoffDates;
+import org.randomcoder.website.cache.FeedCacheImpl;
+import org.randomcoder.website.data.Article;
+import org.randomcoder.website.data.ArticleProjection;
+import org.randomcoder.website.data.Page;
+import org.randomcoder.website.data.Tag;
+import org.randomcoder.website.feed.FeedGenerator;
+import org.randomcoder.website.feed.FeedInfo;
+
+import java.net.URI;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isNull;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FeedResourceTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final YearMonth NEWEST = YearMonth.now().minusMonths(1);
+    private static final YearMonth OLDER = YearMonth.now().minusMonths(3);
+
+    private final List<FeedInfo> generated = new ArrayList<>();
+    private FeedResource resource;
+    private ArticleBusiness articleBusiness;
+    private TagBusiness tagBusiness;
+
+    @Before
+    public void setUp() {
+        articleBusiness = createNiceMock(ArticleBusiness.class);
+        tagBusiness = createNiceMock(TagBusiness.class);
+
+        resource = new FeedResource();
+        resource.articleBusiness = articleBusiness;
+        resource.tagBusiness = tagBusiness;
+        resource.feedCache = new FeedCacheImpl(new MetricRegistry());
+        resource.atomFeedGenerator = new FeedGenerator() {
+            @Override
+            public String generateFeed(FeedInfo info) {
+                generated.add(info);
+                return "<feed>" + info.getArticles().size() + "</feed>";
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/atom+xml";
+            }
+        };
+    }
+
+    @Test
+    public void testIfNoneMatch() throws Exception {
+        expectLatest(article(1L, NEWEST));
+
+        resource.request = request(null, null);
+        Response response = resource.atomAllFeed();
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getEntityTag());
+
+        resource.request = request(response.getEntityTag(), null);
+        Response revalidated = resource.atomAllFeed();
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(response.getEntityTag(), revalidated.getEntityTag());
+
+        // a stale tag gets the cached feed again
+        resource.request = request(new EntityTag("stale"), null);
+        Response stale = resource.atomAllFeed();
+        assertEquals(200, stale.getStatus());
+        assertArrayEquals((byte[]) response.getEntity(), (byte[]) stale.getEntity());
+        assertEquals(1, generated.size());
+    }
+
+    @Test
+    public void testIfModifiedSince() throws Exception {
+        Article article = article(1L, NEWEST);
+        article.setModificationDate(new Date(article.getCreationDate().getTime() + 1_500L));
+        expectLatest(article);
+
+        resource.request = request(null, null);
+        Response response = resource.atomAllFeed();
+        assertEquals(200, response.getStatus());
+
+        // HTTP dates have no milliseconds, so the newest date is truncated to match
+        Date lastModified = response.getLastModified();
+        assertEquals(new Date(article.getCreationDate().getTime() + 1_000L), lastModified);
+
+        resource.request = request(null, lastModified);
+        assertEquals(304, resource.atomAllFeed().getStatus());
+
+        resource.request = request(null, new Date(lastModified.getTime() - 1_000L));
+        assertEquals(200, resource.atomAllFeed().getStatus());
+        assertEquals(1, generated.size());
+    }
+
+    @Test
+    public void testOlderArchiveRevalidates() throws Exception {
+        expect(articleBusiness.listArticlesBeforeDate(
+                eq(ArticleProjection.SUMMARY), anyObject(Date.class), isNull(), eq(0L), eq(1L)))
+                .andStubReturn(new Page<>(List.of(article(1L, NEWEST)), 0, 1, 1));
+        expect(articleBusiness.listArchiveMonths()).andStubReturn(List.of(NEWEST, OLDER));
+        expect(articleBusiness.listArticlesBetweenDates(anyObject(Date.class), anyObject(Date.class)))
+                .andStubReturn(List.of(article(2L, OLDER)));
+        replay(articleBusiness);
+
+        resource.request = request(null, null);
+        Response response = resource.atomArchiveFeed(OLDER.getYear(), OLDER.getMonthValue());
+        assertEquals(200, response.getStatus());
+        String cacheControl = response.getHeaderString(HttpHeaders.CACHE_CONTROL);
+        assertTrue(cacheControl, cacheControl.contains("max-age=86400"));
+        assertFalse(cacheControl, cacheControl.contains("immutable"));
+
+        resource.request = request(response.getEntityTag(), null);
+        Response revalidated = resource.atomArchiveFeed(OLDER.getYear(), OLDER.getMonthValue());
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(1, generated.size());
+    }
+
+    @Test
+    public void testTagFeedUsesLatestCutoff() throws Exception {
+        Tag tag = new Tag();
+        tag.setId(1L);
+        tag.setName("java");
+        tag.setDisplayName("Java");
+        expect(tagBusiness.findTagByName("java")).andStubReturn(tag);
+
+        Capture<Date> cutoff = newCapture();
+        expect(articleBusiness.listArticlesByTagBeforeDate(eq(tag), capture(cutoff), eq(0L), eq(20L)))
+                .andStubReturn(new Page<>(List.of(article(1L, NEWEST)), 0, 1, 20));
+        replay(articleBusiness, tagBusiness);
+
+        resource.request = request(null, null);
+        assertEquals(200, resource.atomTagFeed("Java").getStatus());
+        assertEquals(CutoffDates.LATEST, CutoffDates.normalize(cutoff.getValue()));
+    }
+
+    private void expectLatest(Article article) {
+        expect(articleBusiness.listRecentArticles(20)).andStubReturn(List.of(article));
+        expect(articleBusiness.listArticlesBeforeDate(
+                eq(ArticleProjection.SUMMARY), anyObject(Date.class), isNull(), eq(0L), eq(1L)))
+                .andStubReturn(new Page<>(List.of(), 0, 0, 1));
+        replay(articleBusiness);
+    }
+
+    static ContainerRequest request(EntityTag ifNoneMatch, Date ifModifiedSince) {
+        var request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost/feeds"),
+                "GET", null, new MapPropertiesDelegate(), null);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch.toString());
+        }
+        if (ifModifiedSince != null) {
+            request.header(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        }
+        return request;
+    }
+
+    static Article article(Long id, YearMonth month) {
+        Article article = new Article();
+        article.setId(id);
+        article.setCreationDate(Date.from(month.atDay(2).atStartOfDay(ZONE).toInstant()));
+        return article;
+    }
+
+}
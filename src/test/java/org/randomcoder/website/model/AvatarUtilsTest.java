@@ -0,0 +1,46 @@
+package org.randomcoder.website.model;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.randomcoder.website.cache.AvatarCache;
+import org.randomcoder.website.cache.AvatarCacheImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AvatarUtilsTest {
+
+    private MetricRegistry metrics;
+    private AvatarCache avatarCache;
+
+    @Before
+    public void setUp() {
+        metrics = new MetricRegistry();
+        avatarCache = new AvatarCacheImpl(metrics);
+    }
+
+    @Test
+    public void testAvatarImageUrl() {
+        assertEquals(
+                "https://secure.gravatar.com/avatar/0bc83cb571cd1c50ba6f3e8a78ef1346?s=40&d=mm",
+                AvatarUtils.avatarImageUrl(avatarCache, "MyEmailAddress@example.com "));
+    }
+
+    @Test
+    public void testAvatarImageUrlNull() {
+        assertNull(AvatarUtils.avatarImageUrl(avatarCache, null));
+        assertEquals(0, avatarCache.avatarUrls().estimatedSize());
+    }
+
+    @Test
+    public void testAvatarImageUrlMemoized() {
+        String first = AvatarUtils.avatarImageUrl(avatarCache, "memo@example.com");
+        assertSame(first, AvatarUtils.avatarImageUrl(avatarCache, "memo@example.com"));
+        assertEquals(AvatarUtils.computeAvatarImageUrl(" Memo@Example.com"), first);
+        assertEquals(1, metrics.counter("cache.avatars.hits").getCount());
+        assertEquals(1, metrics.counter("cache.avatars.misses").getCount());
+    }
+
+}
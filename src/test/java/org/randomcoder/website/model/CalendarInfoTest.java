@@ -0,0 +1,121 @@
+package org.randomcoder.website.model;
+
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.Test;
+import org.randomcoder.website.data.Page;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CalendarInfoTest {
+
+    @Test
+    public void testCalendarLinksDropCursor() {
+        Page<String> first = new Page<>(List.of("a", "b"), 0, 6, 2, "1170000000000000-7");
+        String next = nextLink(new PagerInfo<>(first, uriInfo("/tags/java")));
+        assertTrue(next, next.contains(PageUtils.PARAM_PAGE_AFTER + "="));
+
+        boolean[] days = new boolean[31];
+        Arrays.fill(days, true);
+        CalendarInfo calendar = new CalendarInfo(
+                URI.create(next).getPath(), YearMonth.of(2007, 3), LocalDate.of(2007, 3, 14), days);
+
+        List<String> links = new ArrayList<>();
+        links.add(calendar.getSelfLink());
+        links.add(calendar.getPrevMonthLink());
+        links.add(calendar.getNextMonthLink());
+        for (CalendarInfo.Week week : calendar.getWeeks()) {
+            for (CalendarInfo.Day day : week.getDays()) {
+                if (day.getLink() != null) {
+                    links.add(day.getLink());
+                }
+            }
+        }
+
+        for (String link : links) {
+            assertNotNull(link);
+            assertTrue(link, link.startsWith("/tags/java"));
+            assertFalse(link, link.contains(PageUtils.PARAM_PAGE_AFTER));
+            assertFalse(link, link.contains(PageUtils.PARAM_PAGE_NUMBER));
+            assertFalse(link, link.contains(PageUtils.PARAM_PAGE_SIZE));
+        }
+    }
+
+    @Test
+    public void testLinks() {
+        boolean[] days = new boolean[31];
+        days[0] = true;
+        days[13] = true;
+        CalendarInfo calendar = new CalendarInfo("/", YearMonth.of(2007, 3), LocalDate.of(2007, 3, 14), days);
+
+        assertEquals("Mar 2007", calendar.getDisplayedMonthText());
+        assertEquals("/", calendar.getSelfLink());
+        assertEquals("/?year=2007&month=2", calendar.getPrevMonthLink());
+        assertEquals("/?year=2007&month=4", calendar.getNextMonthLink());
+
+        // march 2007 starts on a thursday
+        assertEquals(5, calendar.getWeeks().size());
+        List<CalendarInfo.Day> firstWeek = calendar.getWeeks().get(0).getDays();
+        assertFalse(firstWeek.get(3).isVisible());
+        assertEquals(1, firstWeek.get(4).getNumber());
+        assertEquals("/?year=2007&month=3&day=1", firstWeek.get(4).getLink());
+        assertNull(firstWeek.get(5).getLink());
+
+        CalendarInfo.Day day = calendar.getWeeks().get(2).getDays().get(3);
+        assertEquals(14, day.getNumber());
+        assertEquals("/?year=2007&month=3&day=14", day.getLink());
+        assertEquals("March 14, 2007", day.getLinkTitle());
+        assertTrue(day.isToday());
+    }
+
+    @Test
+    public void testLinkLimits() {
+        boolean[] days = new boolean[31];
+        LocalDate today = LocalDate.of(2020, 6, 15);
+        assertNull(new CalendarInfo("/", YearMonth.of(2009, 6), today, days).getPrevMonthLink());
+        assertNotNull(new CalendarInfo("/", YearMonth.of(2010, 7), today, days).getPrevMonthLink());
+        assertNull(new CalendarInfo("/", YearMonth.of(2021, 7), today, days).getNextMonthLink());
+        assertNotNull(new CalendarInfo("/", YearMonth.of(2021, 6), today, days).getNextMonthLink());
+    }
+
+    private static String nextLink(PagerInfo<?> pager) {
+        List<PagerInfo.PageLink> links = pager.getLinks();
+        return links.get(links.size() - 1).getLink();
+    }
+
+    private static UriInfo uriInfo(String link) {
+        URI uri = URI.create("http://localhost" + link);
+        var params = new MultivaluedHashMap<String, String>();
+        if (uri.getRawQuery() != null) {
+            for (String param : uri.getRawQuery().split("&")) {
+                int eq = param.indexOf('=');
+                params.add(URLDecoder.decode(param.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+
+        UriInfo uriInfo = createNiceMock(UriInfo.class);
+        expect(uriInfo.getRequestUri()).andStubReturn(uri);
+        expect(uriInfo.getPath()).andStubReturn(uri.getPath());
+        expect(uriInfo.getQueryParameters()).andStubReturn(params);
+        replay(uriInfo);
+        return uriInfo;
+    }
+
+}
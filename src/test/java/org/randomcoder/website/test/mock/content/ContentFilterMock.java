@@ -1,6 +1,7 @@
 package org.randomcoder.website.test.mock.content;
 
 import org.randomcoder.website.contentfilter.ContentFilter;
+import org.randomcoder.website.contentfilter.ContentWriter;
 import org.randomcoder.website.contentfilter.InvalidContentException;
 import org.randomcoder.website.contentfilter.InvalidContentTypeException;
 import org.randomcoder.website.contentfilter.TextReader;
@@ -34,6 +35,11 @@ public class ContentFilterMock implements ContentFilter {
         return null;
     }
 
+    @Override
+    public ContentWriter getContentWriter(URL baseUrl, String contentType) {
+        return null;
+    }
+
     @Override
     public void validate(String contentType, Reader content) throws InvalidContentException, InvalidContentTypeException, IOException {
     }